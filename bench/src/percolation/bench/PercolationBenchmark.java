@@ -0,0 +1,283 @@
+package percolation.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * JMH benchmarks for the <code>IPercolate</code> and <code>IUnionFind</code>
+ * implementations in <code>src/</code>.
+ * <P>
+ * JMH refuses benchmark classes in the default package, and classes in a named
+ * package cannot refer to default-package classes, so engines and union-find
+ * structures are looked up by class name and driven through method handles.
+ * The handles for the interface methods are <code>static final</code>, so the
+ * JIT treats them as constants and compiles each call to a plain interface
+ * call; only constructors, which are called at most once per trial, go through
+ * a handle chosen per parameter. Any implementation with an
+ * <code>(int)</code> constructor can be benchmarked by naming it with
+ * <code>-p engine=...</code> or <code>-p unionFind=...</code>.
+ * <P>
+ * To run, put the compiled <code>src/</code> classes and the JMH jars on the
+ * classpath and start <code>main</code>; results are written as JSON to
+ * <code>jmh-result.json</code> (or the file named by the first argument).
+ * <code>PercolationDFS</code> (O(N^4) per trial, and one stack frame per
+ * cell of its recursive flood), <code>PercolationDFSFast</code> and
+ * <code>QuickFind</code> (O(N^2) per union) are left out of the default
+ * parameters, which must run to completion at every size; benchmark them on
+ * small grids, e.g. <code>-p engine=PercolationDFS,PercolationDFSFast -p
+ * n=20,64</code>.
+ */
+public class PercolationBenchmark {
+	static final MethodHandle OPEN = virtual("IPercolate", "open", void.class, int.class, int.class);
+	static final MethodHandle IS_FULL = virtual("IPercolate", "isFull", boolean.class, int.class, int.class);
+	static final MethodHandle PERCOLATES = virtual("IPercolate", "percolates", boolean.class);
+	static final MethodHandle FIND = virtual("IUnionFind", "find", int.class, int.class);
+	static final MethodHandle UNION = virtual("IUnionFind", "union", void.class, int.class, int.class);
+	static final MethodHandle CONNECTED = virtual("IUnionFind", "connected", boolean.class, int.class, int.class);
+
+	/**
+	 * Returns a handle to method name of default-package interface iface,
+	 * taking the receiver as an Object
+	 */
+	static MethodHandle virtual(String iface, String name, Class<?> result, Class<?>... parameters) {
+		MethodType type = MethodType.methodType(result, parameters);
+		try {
+			return MethodHandles.publicLookup().findVirtual(Class.forName(iface), name, type)
+					.asType(type.insertParameterTypes(0, Object.class));
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("cannot find " + iface + "." + name + "; is src/ on the classpath?", e);
+		}
+	}
+
+	// returns a handle to the (int) constructor of default-package class name, returning an Object
+	static MethodHandle constructor(String name) throws ReflectiveOperationException {
+		return MethodHandles.publicLookup()
+				.findConstructor(Class.forName(name), MethodType.methodType(void.class, int.class))
+				.asType(MethodType.methodType(Object.class, int.class));
+	}
+
+	/**
+	 * A grid of size n built by engine, warmed up by opening sites in random
+	 * order until it percolates.
+	 */
+	@State(Scope.Thread)
+	public static class Grid {
+		@Param({ "20", "64", "256", "1024", "4096" })
+		public int n;
+
+		@Param({ "PercolationScanline", "PercolationUF" })
+		public String engine;
+
+		MethodHandle create;
+
+		Object perc;
+		int[] sites;
+		int next;
+		int probe;
+
+		@Setup(Level.Trial)
+		public void lookup() throws ReflectiveOperationException {
+			create = constructor(engine);
+			sites = shuffledSites(n, new SplittableRandom(1234));
+		}
+
+		@Setup(Level.Iteration)
+		public void warm() throws Throwable {
+			perc = (Object) create.invokeExact(n);
+			next = 0;
+			while (!(boolean) PERCOLATES.invokeExact(perc)) {
+				int site = sites[next++];
+				OPEN.invokeExact(perc, site / n, site % n);
+			}
+		}
+	}
+
+	/**
+	 * An n*n-element union-find structure of type unionFind and a random
+	 * sequence of lattice neighbor pairs to union, plus a second structure
+	 * with every pair already unioned for queries. Joining one random
+	 * neighbor per site is bond percolation at about p = 1/2, the critical
+	 * point, so the trees have realistic depths.
+	 */
+	@State(Scope.Thread)
+	public static class UnionFind {
+		@Param({ "20", "64", "256", "1024", "4096" })
+		public int n;
+
+		@Param({ "QuickUWPC", "QuickUnionRank", "QuickUnionSplit", "RemUnionFind" })
+		public String unionFind;
+
+		MethodHandle create;
+
+		Object uf;
+		Object joined;
+		int[] pairs;
+		int next;
+
+		@Setup(Level.Trial)
+		public void lookup() throws ReflectiveOperationException {
+			create = constructor(unionFind);
+
+			// each site paired with its right or lower neighbor, in random order
+			SplittableRandom random = new SplittableRandom(1234);
+			int[] sites = shuffledSites(n, random);
+			pairs = new int[2 * sites.length];
+			for (int k = 0; k < sites.length; k++) {
+				int site = sites[k];
+				int row = site / n, col = site % n;
+				boolean right = col + 1 < n && (row + 1 == n || random.nextBoolean());
+				pairs[2 * k] = site;
+				if (right)
+					pairs[2 * k + 1] = site + 1;
+				else
+					pairs[2 * k + 1] = row + 1 < n ? site + n : site;
+			}
+		}
+
+		@Setup(Level.Iteration)
+		public void fresh() throws Throwable {
+			uf = (Object) create.invokeExact(n * n);
+			next = 0;
+			joined = (Object) create.invokeExact(n * n);
+			for (int k = 0; k < pairs.length; k += 2)
+				UNION.invokeExact(joined, pairs[k], pairs[k + 1]);
+		}
+	}
+
+	// returns the row-major indices of an n-by-n grid in random order
+	static int[] shuffledSites(int n, SplittableRandom random) {
+		int[] sites = new int[n * n];
+		for (int k = 0; k < sites.length; k++)
+			sites[k] = k;
+		for (int k = sites.length - 1; k > 0; k--) {
+			int r = random.nextInt(k + 1);
+			int tmp = sites[k];
+			sites[k] = sites[r];
+			sites[r] = tmp;
+		}
+		return sites;
+	}
+
+	/**
+	 * One full trial: open sites of a fresh grid in random order until it
+	 * percolates.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int trial(Grid g) throws Throwable {
+		Object perc = (Object) g.create.invokeExact(g.n);
+		int k = 0;
+		while (!(boolean) PERCOLATES.invokeExact(perc)) {
+			int site = g.sites[k++];
+			OPEN.invokeExact(perc, site / g.n, site % g.n);
+		}
+		return k;
+	}
+
+	/**
+	 * Open every site of a fresh grid in random order, without checking for
+	 * percolation; divide by n*n for the cost of one open. Every call is a
+	 * real open, unlike timing single opens on a grid that fills up.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Object fill(Grid g) throws Throwable {
+		Object perc = (Object) g.create.invokeExact(g.n);
+		for (int site : g.sites)
+			OPEN.invokeExact(perc, site / g.n, site % g.n);
+		return perc;
+	}
+
+	// isFull on a warm grid, cycling through the cells in random order
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean isFull(Grid g) throws Throwable {
+		int site = g.sites[g.probe];
+		g.probe = g.probe + 1 == g.sites.length ? 0 : g.probe + 1;
+		return (boolean) IS_FULL.invokeExact(g.perc, site / g.n, site % g.n);
+	}
+
+	// percolates on a warm grid
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean percolates(Grid g) throws Throwable {
+		return (boolean) PERCOLATES.invokeExact(g.perc);
+	}
+
+	/**
+	 * Union of the next lattice neighbor pair; wraps around once all pairs
+	 * have been used, after which unions are already-connected no-ops.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void union(UnionFind u) throws Throwable {
+		int k = u.next;
+		u.next = k + 2 == u.pairs.length ? 0 : k + 2;
+		UNION.invokeExact(u.uf, u.pairs[k], u.pairs[k + 1]);
+	}
+
+	// find of a lattice site, interleaved with unions so the trees grow
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public int unionThenFind(UnionFind u) throws Throwable {
+		int k = u.next;
+		u.next = k + 2 == u.pairs.length ? 0 : k + 2;
+		UNION.invokeExact(u.uf, u.pairs[k], u.pairs[k + 1]);
+		return (int) FIND.invokeExact(u.uf, u.pairs[u.pairs.length - 1 - k]);
+	}
+
+	// connected on two random lattice sites of the fully unioned structure
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean connected(UnionFind u) throws Throwable {
+		int k = u.next;
+		u.next = k + 2 == u.pairs.length ? 0 : k + 2;
+		return (boolean) CONNECTED.invokeExact(u.joined, u.pairs[k], u.pairs[u.pairs.length - 1 - k]);
+	}
+
+	/**
+	 * Run every benchmark in this class and write the results as JSON so they
+	 * can be compared between releases.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		String result = args.length > 0 ? args[0] : "jmh-result.json";
+		Options options = new OptionsBuilder()
+				.include(PercolationBenchmark.class.getSimpleName())
+				.warmupIterations(5)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(5)
+				.measurementTime(TimeValue.seconds(1))
+				.forks(1)
+				.resultFormat(ResultFormatType.JSON)
+				.result(result)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,146 @@
+import java.util.Arrays;
+
+/**
+ * A <code>QuickUWPC</code> over the sites of a grid that keeps cluster
+ * statistics up to date as components merge. Sites join the statistics when
+ * they are activated (opened); from then on each root carries the running
+ * sums of its sites' coordinates and squared coordinates, and the structure
+ * keeps a histogram of cluster sizes, the largest cluster and the sum of
+ * squared sizes. Every observable below is O(1), so they can be read after
+ * each open without scanning the grid.
+ * <P>
+ * Only activated sites may be passed to union.
+ */
+
+public class ClusterUnionFind extends QuickUWPC {
+	private int myWidth;
+
+	// per-root sums of column, row, column^2 and row^2 over the component's sites
+	private long[] mySumX;
+	private long[] mySumY;
+	private long[] mySumXX;
+	private long[] mySumYY;
+
+	// myHistogram[s] is the number of clusters with s sites
+	private long[] myHistogram;
+	private long myClusters;
+	private long mySites;
+	private long mySumSquares;
+	private int myLargestRoot;
+
+	/**
+	 * Create a structure for a grid with width columns; site k is at column
+	 * k % width and row k / width. initialize() sets the number of sites.
+	 */
+	public ClusterUnionFind(int width) {
+		if (width <= 0) throw new IllegalArgumentException();
+		myWidth = width;
+	}
+
+	// instantiate n isolated, inactive sites 0 through n-1, reusing the arrays if n is unchanged
+	public void initialize(int n) {
+		super.initialize(n);
+		if (mySumX == null || mySumX.length != n) {
+			mySumX = new long[n];
+			mySumY = new long[n];
+			mySumXX = new long[n];
+			mySumYY = new long[n];
+			myHistogram = new long[n + 1];
+		}
+		else {
+			// sums are only read at activated sites, which activate() overwrites
+			Arrays.fill(myHistogram, 0);
+		}
+		myClusters = 0;
+		mySites = 0;
+		mySumSquares = 0;
+		myLargestRoot = -1;
+	}
+
+	// add site x, not yet joined to anything, as a cluster of one site
+	public void activate(int x) {
+		int col = x % myWidth;
+		int row = x / myWidth;
+		mySumX[x] = col;
+		mySumY[x] = row;
+		mySumXX[x] = (long) col * col;
+		mySumYY[x] = (long) row * row;
+		myHistogram[1]++;
+		myClusters++;
+		mySites++;
+		mySumSquares++;
+		if (myLargestRoot < 0)
+			myLargestRoot = x;
+	}
+
+	// fold child's sums into root and move both old sizes to the new one in the histogram
+	protected void merged(int root, int child) {
+		int childSize = size[child];
+		int rootSize = size[root] - childSize;
+		mySumX[root] += mySumX[child];
+		mySumY[root] += mySumY[child];
+		mySumXX[root] += mySumXX[child];
+		mySumYY[root] += mySumYY[child];
+		myHistogram[rootSize]--;
+		myHistogram[childSize]--;
+		myHistogram[size[root]]++;
+		myClusters--;
+		mySumSquares += 2L * rootSize * childSize;
+		if (size[root] >= size[myLargestRoot])
+			myLargestRoot = root;
+	}
+
+	// returns the number of clusters of activated sites
+	public long clusters() {
+		return myClusters;
+	}
+
+	// returns the number of clusters with exactly s sites
+	public long clusters(int s) {
+		return s > 0 && s < myHistogram.length ? myHistogram[s] : 0;
+	}
+
+	// returns a copy of the histogram: element s is the number of clusters with s sites
+	public long[] sizeHistogram() {
+		return myHistogram.clone();
+	}
+
+	// returns the number of sites in the largest cluster, or 0 if none is active
+	public int largestCluster() {
+		return myLargestRoot < 0 ? 0 : size[myLargestRoot];
+	}
+
+	// returns the number of activated sites divided by the number of clusters
+	public double meanClusterSize() {
+		return myClusters == 0 ? 0 : (double) mySites / myClusters;
+	}
+
+	/**
+	 * Returns the mean size of the cluster containing a randomly chosen active
+	 * site, sum(s^2) / sum(s) over all clusters
+	 */
+	public double weightedMeanClusterSize() {
+		return mySites == 0 ? 0 : (double) mySumSquares / mySites;
+	}
+
+	/**
+	 * Returns the radius of gyration of the cluster containing activated site
+	 * x: the root-mean-square distance of its sites from their center of mass
+	 */
+	public double radiusOfGyration(int x) {
+		return gyration(find(x));
+	}
+
+	// returns the radius of gyration of the largest cluster, or 0 if none is active
+	public double largestRadiusOfGyration() {
+		return myLargestRoot < 0 ? 0 : gyration(myLargestRoot);
+	}
+
+	private double gyration(int root) {
+		double s = size[root];
+		double meanX = mySumX[root] / s;
+		double meanY = mySumY[root] / s;
+		double r2 = (mySumXX[root] + mySumYY[root]) / s - meanX * meanX - meanY * meanY;
+		return Math.sqrt(Math.max(0, r2));
+	}
+}
@@ -0,0 +1,140 @@
+import java.util.Arrays;
+
+/**
+ * Represents a union-find data structure using weighted quick union with path
+ * halving, stored in a single <code>int[]</code>. Each element is encoded as
+ * <ul>
+ * <li>a negative value -s: the element is a root whose component has s
+ * elements,</li>
+ * <li>a positive value p + 1: the element's parent is p,</li>
+ * <li>zero (<code>BLOCKED</code>): the element is blocked and not part of any
+ * component.</li>
+ * </ul>
+ * This takes 4 bytes per element and lets a percolation system keep its
+ * blocked/open state in the same array as its components. A freshly allocated
+ * array is all zeros, so starting with every element blocked costs nothing.
+ */
+
+public class CompactUF implements IUnionFind {
+	public static final int BLOCKED = 0;
+
+	private int[] myParent;
+	private int myComponents;
+
+	/**
+	 * Default constructor
+	 */
+	public CompactUF() {
+		myParent = null;
+		myComponents = 0;
+	}
+
+	/**
+	 * Constructor that creates N isolated components
+	 */
+	public CompactUF(int N) {
+		initialize(N);
+	}
+
+	// instantiate N isolated components 0 through N-1, reusing the array if N is unchanged
+	public void initialize(int n) {
+		if (myParent == null || myParent.length != n)
+			myParent = new int[n];
+		Arrays.fill(myParent, -1);
+		myComponents = n;
+	}
+
+	/**
+	 * Instantiate N elements 0 through N-1 that are all blocked, so there are
+	 * no components until elements are opened.
+	 */
+	public void initializeBlocked(int n) {
+		if (myParent == null || myParent.length != n)
+			myParent = new int[n];
+		else
+			Arrays.fill(myParent, BLOCKED);
+		myComponents = 0;
+	}
+
+	/**
+	 * Make blocked element x an isolated component; does nothing if x is
+	 * already open.
+	 */
+	public void open(int x) {
+		if (myParent[x] == BLOCKED) {
+			myParent[x] = -1;
+			myComponents++;
+		}
+	}
+
+	// returns true iff element x is not blocked
+	public boolean isOpen(int x) {
+		return myParent[x] != BLOCKED;
+	}
+
+	// return number of components among open elements
+	public int components() {
+		return myComponents;
+	}
+
+	// returns root of the component containing x, halving the path on the way
+	// a blocked element is its own root
+	public int find(int x) {
+		while (myParent[x] > 0) {
+			int p = myParent[x] - 1;
+			int gp = myParent[p];
+			if (gp <= 0)
+				return p;
+			myParent[x] = gp;
+			x = gp - 1;
+		}
+		return x;
+	}
+
+	// returns the number of links from x to its root, without compressing
+	public int depth(int x) {
+		int d = 0;
+		while (myParent[x] > 0) {
+			x = myParent[x] - 1;
+			d++;
+		}
+		return d;
+	}
+
+	// returns the root of x without compressing the path
+	public int root(int x) {
+		while (myParent[x] > 0)
+			x = myParent[x] - 1;
+		return x;
+	}
+
+	// returns the number of elements in the component containing x
+	public int size(int x) {
+		return -myParent[find(x)];
+	}
+
+	// returns true if elements p and q are in the same component
+	public boolean connected(int p, int q) {
+		return find(p) == find(q);
+	}
+
+	// merge components containing open elements p and q
+	public void union(int p, int q) {
+		int rootP = find(p);
+		int rootQ = find(q);
+		if (rootP == rootQ) return;
+		if (myParent[rootP] == BLOCKED || myParent[rootQ] == BLOCKED)
+			throw new IllegalArgumentException("cannot union blocked element " + (myParent[rootP] == BLOCKED ? p : q));
+
+		// sizes are stored negated, so the larger component has the smaller value
+		if (myParent[rootP] > myParent[rootQ]) {
+			myParent[rootQ] += myParent[rootP];
+			myParent[rootP] = rootQ + 1;
+		}
+		else {
+			myParent[rootP] += myParent[rootQ];
+			myParent[rootQ] = rootP + 1;
+		}
+		myComponents--;
+	}
+}
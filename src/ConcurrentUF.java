@@ -0,0 +1,126 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Represents a lock-free union-find data structure that many threads can use
+ * at once. Parent links live in an <code>AtomicIntegerArray</code>; roots are
+ * linked with a single compare-and-set and paths are halved with
+ * compare-and-set as well, so a thread that loses a race simply retries.
+ * Roots are linked by a fixed pseudo-random priority of their index rather
+ * than by size, which keeps trees shallow in expectation without having to
+ * update a size atomically with the link.
+ * <p>
+ * <em>find</em>, <em>union</em> and <em>connected</em> are linearizable:
+ * <em>connected</em> only reports false after seeing that one of the two
+ * roots is still a root, so it never misses a union that completed before it
+ * started. <em>initialize</em> is not thread-safe.
+ * <p>
+ * See S. V. Jayanti and R. E. Tarjan, "A randomized concurrent algorithm for
+ * disjoint set union", PODC 2016, and R. J. Anderson and H. Woll, "Wait-free
+ * parallel algorithms for the union-find problem", STOC 1991.
+ */
+
+public class ConcurrentUF implements IUnionFind {
+	private AtomicIntegerArray parentID;
+	private AtomicInteger myComponents;
+
+	/**
+	 * Default constructor
+	 */
+	public ConcurrentUF() {
+		parentID = null;
+		myComponents = new AtomicInteger();
+	}
+
+	/**
+	 * Constructor that creates N isolated components
+	 */
+	public ConcurrentUF(int N) {
+		myComponents = new AtomicInteger();
+		initialize(N);
+	}
+
+	// instantiate N isolated components 0 through N-1
+	public void initialize(int n) {
+		if (parentID == null || parentID.length() != n)
+			parentID = new AtomicIntegerArray(n);
+		for (int i = 0; i < n; i++)
+			parentID.set(i, i);
+		myComponents.set(n);
+	}
+
+	// return number of connected components
+	public int components() {
+		return myComponents.get();
+	}
+
+	// returns id of component corresponding to element x, halving the path on the way
+	public int find(int x) {
+		int p = parentID.get(x);
+		while (p != x) {
+			int gp = parentID.get(p);
+			if (gp != p)
+				parentID.compareAndSet(x, p, gp);
+			x = gp;
+			p = parentID.get(x);
+		}
+		return x;
+	}
+
+	// returns the number of links from x to its root, without compressing
+	public int depth(int x) {
+		int d = 0;
+		for (int p = parentID.get(x); p != x; p = parentID.get(x)) {
+			x = p;
+			d++;
+		}
+		return d;
+	}
+
+	// returns the root of x without compressing the path
+	public int root(int x) {
+		for (int p = parentID.get(x); p != x; p = parentID.get(x))
+			x = p;
+		return x;
+	}
+
+	// returns true if elements p and q are in the same component
+	public boolean connected(int p, int q) {
+		while (true) {
+			int rootP = find(p);
+			int rootQ = find(q);
+			if (rootP == rootQ)
+				return true;
+			// rootQ was a root when found; if rootP still is, they were apart at that point
+			if (parentID.get(rootP) == rootP)
+				return false;
+		}
+	}
+
+	// merge components containing p and q
+	public void union(int p, int q) {
+		while (true) {
+			int rootP = find(p);
+			int rootQ = find(q);
+			if (rootP == rootQ)
+				return;
+
+			// link the lower-priority root under the higher-priority one
+			if (priority(rootP) > priority(rootQ)) {
+				int tmp = rootP;
+				rootP = rootQ;
+				rootQ = tmp;
+			}
+			if (parentID.compareAndSet(rootP, rootP, rootQ)) {
+				myComponents.decrementAndGet();
+				return;
+			}
+		}
+	}
+
+	// a fixed bijective scramble of x, so priorities are distinct and look random
+	private static int priority(int x) {
+		int h = x * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,225 @@
+import java.util.Arrays;
+
+/**
+ * Label the clusters of a fixed grid of open and blocked sites one row at a
+ * time with the Hoshen-Kopelman algorithm. Only the labels of the most recent
+ * row are kept, together with a union-find structure over the labels that are
+ * still live (appear in that row), so memory grows with the width of the grid
+ * and not with its area. Rows can be generated on the fly or read from any
+ * source, and grids of any height can be streamed through.
+ * <P>
+ * After each row the labels are compacted to 0 through k-1 for the k clusters
+ * touching that row. A cluster that does not reach the new row is finished:
+ * it is counted and its size is compared with the largest so far.
+ * <P>
+ * See J. Hoshen and R. Kopelman, "Percolation and cluster distribution. I.
+ * Cluster multiple labeling technique and critical concentration algorithm",
+ * Phys. Rev. B 14, 3438 (1976).
+ */
+
+public class HoshenKopelman {
+	private int myWidth;
+	private int myRows;
+
+	// labels of the last row (-1 for blocked) and per-label data for them
+	private int[] myPrev;
+	private int myLabelCount;
+	private long[] mySize;
+	private boolean[] myTop;
+
+	// scratch space for the row being added, indexed by label
+	private int[] myCur;
+	private int[] myParent;
+	private int[] myMap;
+	private long[] myNextSize;
+	private boolean[] myNextTop;
+
+	private long myFinished;
+	private long myLargestFinished;
+	private long myLargestLive;
+	private boolean mySpans;
+
+	/**
+	 * Start labelling a grid with the given number of columns and no rows.
+	 */
+	public HoshenKopelman(int width) {
+		if (width <= 0) throw new IllegalArgumentException();
+		myWidth = width;
+		myRows = 0;
+		myPrev = new int[width];
+		Arrays.fill(myPrev, -1);
+		myLabelCount = 0;
+
+		// a row has at most (width + 1) / 2 clusters, and each new row adds at most that many labels
+		int labels = width + 1;
+		mySize = new long[labels];
+		myTop = new boolean[labels];
+		myCur = new int[width];
+		myParent = new int[labels];
+		myMap = new int[labels];
+		myNextSize = new long[labels];
+		myNextTop = new boolean[labels];
+	}
+
+	/**
+	 * Label the next row of the grid, where open[c] is true iff the site in
+	 * column c is open.
+	 */
+	public void addRow(boolean[] open) {
+		if (open.length != myWidth)
+			throw new IllegalArgumentException("row has " + open.length + " columns, expected " + myWidth);
+
+		// labels 0..k-1 are the clusters of the previous row, all roots
+		int k = myLabelCount;
+		for (int l = 0; l < k; l++)
+			myParent[l] = l;
+		int next = k;
+
+		for (int c = 0; c < myWidth; c++) {
+			if (!open[c]) {
+				myCur[c] = -1;
+				continue;
+			}
+			int up = myPrev[c];
+			int left = c > 0 ? myCur[c - 1] : -1;
+			int label;
+			if (up < 0 && left < 0) {
+				label = next++;
+				myParent[label] = label;
+				mySize[label] = 0;
+				myTop[label] = myRows == 0;
+			}
+			else if (up < 0)
+				label = find(left);
+			else if (left < 0)
+				label = find(up);
+			else
+				label = union(up, left);
+			mySize[label]++;
+			myCur[c] = label;
+		}
+
+		// clusters of the previous row that did not reach this one are finished
+		Arrays.fill(myMap, 0, next, -1);
+		for (int c = 0; c < myWidth; c++)
+			if (myCur[c] >= 0) {
+				myCur[c] = find(myCur[c]);
+				myMap[myCur[c]] = 0;
+			}
+		for (int l = 0; l < k; l++)
+			if (myParent[l] == l && myMap[l] < 0) {
+				myFinished++;
+				myLargestFinished = Math.max(myLargestFinished, mySize[l]);
+			}
+
+		// compact the live labels to 0..count-1 in column order
+		Arrays.fill(myMap, 0, next, -1);
+		int count = 0;
+		myLargestLive = 0;
+		mySpans = false;
+		for (int c = 0; c < myWidth; c++) {
+			int root = myCur[c];
+			if (root < 0) {
+				myPrev[c] = -1;
+				continue;
+			}
+			if (myMap[root] < 0) {
+				myMap[root] = count;
+				myNextSize[count] = mySize[root];
+				myNextTop[count] = myTop[root];
+				myLargestLive = Math.max(myLargestLive, mySize[root]);
+				mySpans |= myTop[root];
+				count++;
+			}
+			myPrev[c] = myMap[root];
+		}
+
+		long[] size = mySize;
+		mySize = myNextSize;
+		myNextSize = size;
+		boolean[] top = myTop;
+		myTop = myNextTop;
+		myNextTop = top;
+		myLabelCount = count;
+		myRows++;
+	}
+
+	// returns the number of rows labelled so far
+	public int rows() {
+		return myRows;
+	}
+
+	/**
+	 * Returns true iff some cluster connects the first row to the last row
+	 * added so far.
+	 */
+	public boolean spans() {
+		return mySpans;
+	}
+
+	// returns the number of clusters among the rows added so far
+	public long clusters() {
+		return myFinished + myLabelCount;
+	}
+
+	// returns the number of sites in the largest cluster among the rows added so far
+	public long largestCluster() {
+		return Math.max(myLargestFinished, myLargestLive);
+	}
+
+	// returns root label of label x, halving the path on the way
+	private int find(int x) {
+		while (x != myParent[x]) {
+			myParent[x] = myParent[myParent[x]];
+			x = myParent[x];
+		}
+		return x;
+	}
+
+	// merge the clusters of labels p and q, smaller under larger; return the new root
+	private int union(int p, int q) {
+		int rootP = find(p);
+		int rootQ = find(q);
+		if (rootP == rootQ) return rootP;
+		if (mySize[rootP] < mySize[rootQ]) {
+			int tmp = rootP;
+			rootP = rootQ;
+			rootQ = tmp;
+		}
+		myParent[rootQ] = rootP;
+		mySize[rootP] += mySize[rootQ];
+		myTop[rootP] |= myTop[rootQ];
+		return rootP;
+	}
+
+	/**
+	 * Label an n-by-n grid in which each site is open independently with
+	 * probability p, generating it one row at a time.
+	 */
+	public static HoshenKopelman sample(int n, double p, IRandom random) {
+		HoshenKopelman hk = new HoshenKopelman(n);
+		boolean[] row = new boolean[n];
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++)
+				row[c] = random.nextDouble() < p;
+			hk.addRow(row);
+		}
+		return hk;
+	}
+
+	// estimate the spanning probability at the threshold on a wide grid
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int trials = 20;
+		double p = 0.5927;
+		int spanning = 0;
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < trials; i++)
+			if (sample(n, p, PercolationStats.trialRandom(i)).spans())
+				spanning++;
+		long end = System.currentTimeMillis();
+
+		System.out.println("Run Time: " + (end - start));
+		System.out.println("Spanning fraction at p = " + p + ": " + (double) spanning / trials);
+	}
+}
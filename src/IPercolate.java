@@ -70,4 +70,44 @@ public interface IPercolate {
 	 * @return number of open sites
 	 */
 	public int numberOfOpenSites();
+
+	/**
+	 * Returns the state of every site in one pass, so that renderers and
+	 * analyzers can read the whole grid linearly instead of calling isOpen and
+	 * isFull once per site. Site (row i, col j) of an N-by-N grid is element
+	 * i * N + j and holds BLOCKED, OPEN or FULL; a FULL site is also open.
+	 * 
+	 * @return a new array of N * N site states in row-major order
+	 */
+	public byte[] snapshot();
+
+	/**
+	 * Send events for every site that is opened or becomes FULL from now on to
+	 * listener, or stop sending them if listener is null. Sites that are
+	 * already open or full, and percolation that has already happened, are
+	 * not reported. With no listener set, an implementation does no extra
+	 * work. Implementations that cannot report changes keep this default,
+	 * which throws; check supportsListener() first.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if this implementation does not report changes
+	 */
+	public default void setListener(IPercolateListener listener) {
+		throw new UnsupportedOperationException(getClass().getName() + " does not report changes");
+	}
+
+	/**
+	 * Returns true iff setListener() is supported. Implementations that
+	 * override setListener() also override this.
+	 */
+	public default boolean supportsListener() {
+		return false;
+	}
+
+	/**
+	 * Block every site again, as if the system had just been constructed,
+	 * reusing its storage so that repeated trials allocate nothing. A listener
+	 * stays attached and receives events for the new trial.
+	 */
+	public void reset();
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+/**
+ * Receives events from an <code>IPercolate</code> as it changes: sites being
+ * opened, regions becoming full and the system percolating. Renderers can
+ * repaint just the sites that changed, and tools can react to percolation
+ * instead of polling isFull or percolates after every open. Every method does
+ * nothing by default, so a listener only overrides the events it needs.
+ * <P>
+ * For each open the events arrive in order: siteOpened, then siteFilled for
+ * each newly full site, then regionFilled, then percolated if the system has
+ * just started to percolate.
+ */
+
+public interface IPercolateListener {
+
+	/**
+	 * Called when site (row i, col j) changes from BLOCKED to OPEN
+	 * 
+	 * @param i
+	 *            row index in range [0,N-1]
+	 * @param j
+	 *            column index in range [0,N-1]
+	 */
+	public default void siteOpened(int i, int j) {
+	}
+
+	/**
+	 * Called when site (row i, col j) becomes FULL. Each site is reported at
+	 * most once, after it has been reported open.
+	 * 
+	 * @param i
+	 *            row index in range [0,N-1]
+	 * @param j
+	 *            column index in range [0,N-1]
+	 */
+	public default void siteFilled(int i, int j) {
+	}
+
+	/**
+	 * Called once per open that made any sites FULL, after those sites have
+	 * been reported to siteFilled
+	 * 
+	 * @param i
+	 *            row index of the site just opened
+	 * @param j
+	 *            column index of the site just opened
+	 * @param cells
+	 *            number of sites that became FULL
+	 */
+	public default void regionFilled(int i, int j, int cells) {
+	}
+
+	/**
+	 * Called once, after the open that first makes the system percolate
+	 */
+	public default void percolated() {
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * A source of random numbers for driving trials. Unlike
+ * <code>java.util.Random</code>, implementations are not synchronized and
+ * share no state, so each trial or thread should use its own instance;
+ * split() derives an independent one. Bounded ints use Lemire's
+ * multiply-and-shift method, which needs a division only on the rare
+ * rejection path.
+ * <P>
+ * See D. Lemire, "Fast Random Integer Generation in an Interval", ACM
+ * Transactions on Modeling and Computer Simulation 29, 1 (2019).
+ */
+
+public interface IRandom {
+
+	// returns the next 64 random bits
+	public long nextLong();
+
+	/**
+	 * Returns a new generator whose sequence does not depend on (and, for
+	 * practical purposes, does not overlap) the rest of this one's
+	 */
+	public IRandom split();
+
+	// returns the next 32 random bits
+	public default int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	// returns a uniform random int in [0, bound), for bound > 0
+	public default int nextInt(int bound) {
+		if (bound <= 0)
+			throw new IllegalArgumentException("bound must be positive: " + bound);
+		long m = (nextInt() & 0xFFFFFFFFL) * bound;
+		long low = m & 0xFFFFFFFFL;
+		if (low < bound) {
+			// reject the few products that would make some results more likely
+			long threshold = ((1L << 32) - bound) % bound;
+			while (low < threshold) {
+				m = (nextInt() & 0xFFFFFFFFL) * bound;
+				low = m & 0xFFFFFFFFL;
+			}
+		}
+		return (int) (m >>> 32);
+	}
+
+	// returns a uniform random double in [0, 1)
+	public default double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * The SplitMix64 finalizer: a bijection on longs that scatters nearby
+	 * inputs, used to turn consecutive indices into unrelated seeds
+	 */
+	public static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
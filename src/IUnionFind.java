@@ -10,7 +10,8 @@
 public interface IUnionFind {
 
 	/**
-	 * Instantiate N isolated components in [0,N-1]
+	 * Instantiate N isolated components in [0,N-1]. Calling this again with
+	 * the same N resets the structure in place, reusing its arrays
 	 */
 	public void initialize(int n);
 
@@ -34,4 +35,21 @@ public interface IUnionFind {
 	 * containing p and q
 	 */
 	public void union(int p, int q);
+
+	/**
+	 * Returns the number of links from x to the root of its tree, without
+	 * compressing the path, or -1 if the implementation does not store trees
+	 */
+	public default int depth(int x) {
+		return -1;
+	}
+
+	/**
+	 * Returns the root of x's component, as find(x) would, but without
+	 * compressing the path. Implementations whose find changes the structure
+	 * override this.
+	 */
+	public default int root(int x) {
+		return find(x);
+	}
 }
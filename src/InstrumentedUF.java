@@ -0,0 +1,94 @@
+import java.util.Arrays;
+
+/**
+ * Wraps any <code>IUnionFind</code> and records every operation in a
+ * <code>UnionFindCounters</code>: calls to find, connected and union, unions
+ * that actually link two components, the size of the largest component, and
+ * the length of the path from each queried element to its root (measured with
+ * <code>depth</code> before the wrapped structure compresses it). Roots are
+ * looked up with <code>root</code>, which never compresses, so the wrapped
+ * structure makes exactly the changes it would make unwrapped.
+ * <p>
+ * Measuring paths and component sizes roughly doubles the cost of each
+ * operation, so wrap a structure only when its counts are wanted; an
+ * unwrapped structure pays nothing. Component sizes are tracked by this
+ * object, so one InstrumentedUF should be used by one thread at a time.
+ */
+
+public class InstrumentedUF implements IUnionFind {
+	private IUnionFind myDelegate;
+	private UnionFindCounters myCounters;
+	private int[] mySize;
+
+	/**
+	 * Wrap delegate, which is initialized when this object is, recording into
+	 * counters
+	 */
+	public InstrumentedUF(IUnionFind delegate, UnionFindCounters counters) {
+		myDelegate = delegate;
+		myCounters = counters;
+		mySize = null;
+	}
+
+	/**
+	 * Wrap delegate and create N isolated components, recording into counters
+	 */
+	public InstrumentedUF(IUnionFind delegate, UnionFindCounters counters, int N) {
+		this(delegate, counters);
+		initialize(N);
+	}
+
+	// instantiate N isolated components 0 through N-1
+	public void initialize(int n) {
+		myDelegate.initialize(n);
+		if (mySize == null || mySize.length != n)
+			mySize = new int[n];
+		Arrays.fill(mySize, 1);
+	}
+
+	// returns the counters this object records into
+	public UnionFindCounters counters() {
+		return myCounters;
+	}
+
+	// return number of connected components
+	public int components() {
+		return myDelegate.components();
+	}
+
+	public int find(int x) {
+		myCounters.countFind();
+		myCounters.countPath(myDelegate.depth(x));
+		return myDelegate.find(x);
+	}
+
+	public boolean connected(int p, int q) {
+		myCounters.countConnected();
+		myCounters.countPath(myDelegate.depth(p));
+		myCounters.countPath(myDelegate.depth(q));
+		return myDelegate.connected(p, q);
+	}
+
+	public void union(int p, int q) {
+		myCounters.countUnion();
+		myCounters.countPath(myDelegate.depth(p));
+		myCounters.countPath(myDelegate.depth(q));
+		int rootP = myDelegate.root(p);
+		int rootQ = myDelegate.root(q);
+		myDelegate.union(p, q);
+		if (rootP == rootQ)
+			return;
+
+		int root = myDelegate.root(p);
+		mySize[root] = mySize[rootP] + mySize[rootQ];
+		myCounters.countLink(mySize[root]);
+	}
+
+	public int depth(int x) {
+		return myDelegate.depth(x);
+	}
+
+	public int root(int x) {
+		return myDelegate.root(x);
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Estimate the spanning probability R(p) and percolation strength P(p) of an
+ * N-by-N grid using the Newman-Ziff algorithm. Each trial opens every site of
+ * a fresh grid in random order and records, after each open, whether the grid
+ * percolates and the size of the largest cluster. Averaging over trials gives
+ * these observables as a function of the number n of open sites; convolving
+ * with the binomial distribution then gives them at any site probability p,
+ * so one sweep per trial replaces a separate experiment for every p.
+ * <P>
+ * Percolation is tracked by a <code>PercolationUFFlags</code>, whose
+ * union-find covers only the N*N sites, without virtual top and bottom nodes.
+ * Cluster sizes are read from that same <code>QuickUWPC</code>, so each open
+ * is unioned once.
+ * <P>
+ * See M. E. J. Newman and R. M. Ziff, "Fast Monte Carlo algorithm for site or
+ * bond percolation", Phys. Rev. E 64, 016706 (2001).
+ */
+
+public class NewmanZiff {
+	private int N, T;
+	private double[] mySpanning; // fraction of trials percolating with n sites open
+	private double[] myLargest; // mean largest cluster size / N^2 with n sites open
+
+	/**
+	 * Run T sweeps over an N-by-N grid. Trial i draws from
+	 * PercolationStats.trialRandom(i).
+	 * 
+	 * @param N
+	 *            size of Percolation grid
+	 * @param T
+	 *            number of sweeps to average over
+	 */
+	public NewmanZiff(int N_loc, int T_loc) {
+		if (N_loc <= 0 || T_loc <= 0)
+			throw new IllegalArgumentException();
+
+		N = N_loc;
+		T = T_loc;
+		int sites = N * N;
+		mySpanning = new double[sites + 1];
+		myLargest = new double[sites + 1];
+
+		QuickUWPC clusters = new QuickUWPC();
+		PercolationUFFlags perc = new PercolationUFFlags(N, clusters);
+		for (int i = 0; i < T; i++) {
+			if (i > 0)
+				perc.reset();
+			sweep(perc, clusters, TrialDriver.shuffledSites(N, PercolationStats.trialRandom(i)));
+		}
+
+		for (int n = 0; n <= sites; n++) {
+			mySpanning[n] /= T;
+			myLargest[n] /= (double) T * sites;
+		}
+	}
+
+	/**
+	 * Open every site of blocked perc in order, accumulating the observables
+	 * after each open; clusters is the union-find perc opens sites in
+	 */
+	private void sweep(PercolationUFFlags perc, QuickUWPC clusters, int[] order) {
+		int largest = 0;
+		for (int k = 0; k < order.length; k++) {
+			int site = order[k];
+			perc.open(site / N, site % N);
+			largest = Math.max(largest, clusters.size(site));
+
+			if (perc.percolates())
+				mySpanning[k + 1]++;
+			myLargest[k + 1] += largest;
+		}
+	}
+
+	/**
+	 * Returns the fraction of trials that percolate once exactly n sites are
+	 * open.
+	 */
+	public double spanningAt(int n) {
+		return mySpanning[n];
+	}
+
+	/**
+	 * Returns the mean fraction of sites in the largest cluster once exactly n
+	 * sites are open.
+	 */
+	public double largestClusterAt(int n) {
+		return myLargest[n];
+	}
+
+	/**
+	 * Returns the estimated probability R(p) that the grid percolates when
+	 * each site is open independently with probability p.
+	 */
+	public double crossingProbability(double p) {
+		return convolve(mySpanning, p);
+	}
+
+	/**
+	 * Returns the estimated mean fraction of sites P(p) in the largest cluster
+	 * when each site is open independently with probability p.
+	 */
+	public double percolationStrength(double p) {
+		return convolve(myLargest, p);
+	}
+
+	/**
+	 * Returns sum over n of B(M, n, p) * q[n] where M = q.length - 1. Binomial
+	 * weights are computed outward from the mode by their ratios and then
+	 * normalized, so no factorials overflow.
+	 */
+	private static double convolve(double[] q, double p) {
+		if (p < 0 || p > 1)
+			throw new IllegalArgumentException("p = " + p + " is not a probability");
+		int m = q.length - 1;
+		if (p == 0) return q[0];
+		if (p == 1) return q[m];
+
+		int mode = (int) Math.min(m, Math.floor((m + 1) * p));
+		double odds = p / (1 - p);
+		double total = 1;
+		double sum = q[mode];
+
+		double w = 1;
+		for (int n = mode + 1; n <= m && w > 0; n++) {
+			w *= odds * (m - n + 1) / n;
+			total += w;
+			sum += w * q[n];
+		}
+		w = 1;
+		for (int n = mode - 1; n >= 0 && w > 0; n--) {
+			w *= (n + 1) / (odds * (m - n));
+			total += w;
+			sum += w * q[n];
+		}
+		return sum / total;
+	}
+
+	// print the crossing probability curve around the threshold
+	public static void main(String[] args) {
+		long start = System.currentTimeMillis();
+		NewmanZiff nz = new NewmanZiff(64, 100);
+		long end = System.currentTimeMillis();
+
+		System.out.println("Run Time: " + (end - start));
+		for (double p = 0.50; p <= 0.70 + 1e-9; p += 0.005)
+			System.out.printf("p = %.3f  R(p) = %.4f  P(p) = %.4f%n", p, nz.crossingProbability(p),
+					nz.percolationStrength(p));
+	}
+}
@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed-length array of longs indexed by <code>long</code> that lives
+ * outside the Java heap, either in direct memory or in a memory-mapped file.
+ * A single NIO buffer holds at most 2^31 bytes, so the array is split into
+ * chunks of 2^27 longs (1 GiB). All elements start as zero, and since the
+ * garbage collector only sees the small chunk objects, arrays with billions
+ * of elements add nothing to GC scanning.
+ */
+
+public class OffHeapLongArray {
+	private static final int CHUNK_BITS = 27;
+	private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+	private final long myLength;
+	private final LongBuffer[] myChunks;
+
+	/**
+	 * Allocate length zeroed longs in direct memory. The JVM's
+	 * -XX:MaxDirectMemorySize must allow 8 * length bytes.
+	 */
+	public OffHeapLongArray(long length) {
+		this(length, null);
+	}
+
+	/**
+	 * Map length longs from file, creating or growing the file as needed.
+	 * Newly created regions of the file read as zero. If file is null the
+	 * longs are allocated in direct memory instead.
+	 */
+	public OffHeapLongArray(long length, Path file) {
+		if (length < 0) throw new IllegalArgumentException();
+		myLength = length;
+		int chunks = (int) ((length + CHUNK_MASK) >>> CHUNK_BITS);
+		myChunks = new LongBuffer[chunks];
+
+		if (file == null) {
+			for (int c = 0; c < chunks; c++)
+				myChunks[c] = ByteBuffer.allocateDirect(chunkBytes(c)).order(ByteOrder.nativeOrder()).asLongBuffer();
+			return;
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			for (int c = 0; c < chunks; c++) {
+				long offset = ((long) c << CHUNK_BITS) * Long.BYTES;
+				myChunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, offset, chunkBytes(c))
+						.order(ByteOrder.nativeOrder()).asLongBuffer();
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("cannot map " + file, e);
+		}
+	}
+
+	// number of bytes in chunk c
+	private int chunkBytes(int c) {
+		long first = (long) c << CHUNK_BITS;
+		return (int) (Math.min(myLength - first, CHUNK_MASK + 1) * Long.BYTES);
+	}
+
+	// returns the number of elements
+	public long length() {
+		return myLength;
+	}
+
+	// returns element i
+	public long get(long i) {
+		return myChunks[(int) (i >>> CHUNK_BITS)].get((int) (i & CHUNK_MASK));
+	}
+
+	// sets element i to value
+	public void set(long i, long value) {
+		myChunks[(int) (i >>> CHUNK_BITS)].put((int) (i & CHUNK_MASK), value);
+	}
+
+	// sets every element to value
+	public void fill(long value) {
+		for (LongBuffer chunk : myChunks)
+			for (int i = 0; i < chunk.capacity(); i++)
+				chunk.put(i, value);
+	}
+}
@@ -0,0 +1,45 @@
+/**
+ * O'Neill's PCG32 generator (XSH RR variant): a 64-bit linear congruential
+ * state whose output is permuted down to 32 bits. Each odd increment selects
+ * a different stream, and split() starts a new random stream.
+ * <P>
+ * See M. E. O'Neill, "PCG: A Family of Simple Fast Space-Efficient
+ * Statistically Good Algorithms for Random Number Generation", Harvey Mudd
+ * College technical report HMC-CS-2014-0905 (2014).
+ */
+
+public class Pcg32 implements IRandom {
+	private static final long MULTIPLIER = 6364136223846793005L;
+
+	private long myState;
+	private long myIncrement;
+
+	// a generator on stream 0 whose sequence is determined by seed
+	public Pcg32(long seed) {
+		this(seed, 0);
+	}
+
+	// a generator on the given stream whose sequence is determined by seed
+	public Pcg32(long seed, long stream) {
+		myState = 0;
+		myIncrement = (stream << 1) | 1;
+		nextInt();
+		myState += seed;
+		nextInt();
+	}
+
+	public int nextInt() {
+		long old = myState;
+		myState = old * MULTIPLIER + myIncrement;
+		int xorshifted = (int) (((old >>> 18) ^ old) >>> 27);
+		return Integer.rotateRight(xorshifted, (int) (old >>> 59));
+	}
+
+	public long nextLong() {
+		return ((long) nextInt() << 32) | (nextInt() & 0xFFFFFFFFL);
+	}
+
+	public IRandom split() {
+		return new Pcg32(nextLong(), nextLong());
+	}
+}
@@ -0,0 +1,262 @@
+import java.util.Arrays;
+
+/**
+ * Simulate a system to see its Percolation Threshold with one bit per site.
+ * Each row of the grid is a run of <code>long</code> words, with column j in
+ * bit j % 64 of word j / 64, so the open sites take 32 times less memory than
+ * the <code>int[][]</code> of <code>PercolationDFS</code>. A second bitset of
+ * the same size holds the full sites.
+ * <P>
+ * Fullness is worked out 64 columns at a time. Within a row, it spreads
+ * sideways through runs of open sites with a Kogge-Stone shift-and-mask fill
+ * (six shifts per word), carrying across word boundaries. Between rows it
+ * spreads down and up with a bitwise AND against the open sites. A row is
+ * refilled only while it is on a work stack. A row goes on the stack when a
+ * site is opened in it or when a neighboring row gains full sites, so the
+ * work follows the winding clusters near the threshold instead of sweeping
+ * the whole grid until nothing changes.
+ * <P>
+ * Opening a site only sets its bit; fullness is brought up to date lazily the
+ * next time isFull(), percolates() or snapshot() is called. Sites only ever
+ * become full, so each update continues from the previous one. This suits
+ * fixed-p workloads like sample(), where the whole grid is opened before it
+ * is queried, rather than checking percolates() after every open.
+ */
+
+public class PercolationBitset implements IPercolate {
+	private int mySize;
+	private int myWords;
+	private long[] myOpen;
+	private long[] myFull;
+	private int myOpenSites;
+
+	// rows waiting to be refilled
+	private int[] myPending;
+	private int myPendingSize;
+	private boolean[] myQueued;
+
+	/**
+	 * Initialize a grid so that all cells are blocked.
+	 *
+	 * @param n
+	 *            is the size of the simulated (square) grid
+	 */
+	public PercolationBitset(int n) {
+		if (n <= 0) throw new IllegalArgumentException();
+		mySize = n;
+		myWords = (n + 63) >>> 6;
+		myOpen = new long[n * myWords];
+		myFull = new long[n * myWords];
+		myOpenSites = 0;
+		myPending = new int[n];
+		myPendingSize = 0;
+		myQueued = new boolean[n];
+	}
+
+	// returns the index of the word holding (i, j), throwing if it is out of bounds
+	private int word(int i, int j) {
+		if (i < 0 || i >= mySize || j < 0 || j >= mySize)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + i + "," + j + " is bad!");
+		return i * myWords + (j >>> 6);
+	}
+
+	public void open(int i, int j) {
+		int w = word(i, j);
+		long bit = 1L << j;
+		if ((myOpen[w] & bit) != 0)
+			return;
+
+		myOpen[w] |= bit;
+		myOpenSites++;
+		push(i);
+	}
+
+	// queue row r for refilling unless it is already queued
+	private void push(int r) {
+		if (myQueued[r])
+			return;
+		myQueued[r] = true;
+		myPending[myPendingSize++] = r;
+	}
+
+	public boolean isOpen(int i, int j) {
+		return (myOpen[word(i, j)] & (1L << j)) != 0;
+	}
+
+	public boolean isFull(int i, int j) {
+		int w = word(i, j);
+		update();
+		return (myFull[w] & (1L << j)) != 0;
+	}
+
+	public int numberOfOpenSites() {
+		return myOpenSites;
+	}
+
+	// true iff some site on the bottom row is full
+	public boolean percolates() {
+		update();
+		for (int w = (mySize - 1) * myWords; w < myFull.length; w++)
+			if (myFull[w] != 0)
+				return true;
+		return false;
+	}
+
+	// block every site again, reusing both bitsets
+	public void reset() {
+		Arrays.fill(myOpen, 0);
+		Arrays.fill(myFull, 0);
+		myOpenSites = 0;
+		Arrays.fill(myQueued, false);
+		myPendingSize = 0;
+	}
+
+	// unpack both bitsets one word at a time
+	public byte[] snapshot() {
+		update();
+		byte[] states = new byte[mySize * mySize];
+		for (int row = 0; row < mySize; row++)
+			for (int col = 0; col < mySize; col++) {
+				int w = row * myWords + (col >>> 6);
+				long bit = 1L << col;
+				if ((myFull[w] & bit) != 0)
+					states[row * mySize + col] = FULL;
+				else if ((myOpen[w] & bit) != 0)
+					states[row * mySize + col] = OPEN;
+			}
+		return states;
+	}
+
+	/**
+	 * Refill queued rows until none is left, queueing the rows above and below
+	 * each row that gains full sites.
+	 */
+	private void update() {
+		while (myPendingSize > 0) {
+			int r = myPending[--myPendingSize];
+			myQueued[r] = false;
+			if (fillRow(r)) {
+				if (r > 0)
+					push(r - 1);
+				if (r < mySize - 1)
+					push(r + 1);
+			}
+		}
+	}
+
+	/**
+	 * Make full every open site of row r that is next to a full site above or
+	 * below, or on the top row, and every open site joined to one of those
+	 * within the row. Returns true iff the row gained a full site.
+	 */
+	private boolean fillRow(int r) {
+		int base = r * myWords;
+		boolean grew = false;
+
+		// seed from the rows above and below, and fill toward higher columns
+		long carry = 0;
+		for (int w = 0; w < myWords; w++) {
+			int k = base + w;
+			long open = myOpen[k];
+			long seed = myFull[k] | carry;
+			if (r == 0)
+				seed |= open;
+			else
+				seed |= myFull[k - myWords];
+			if (r < mySize - 1)
+				seed |= myFull[k + myWords];
+			long full = fillUp(seed & open, open);
+			grew |= full != myFull[k];
+			myFull[k] = full;
+			carry = full >>> 63;
+		}
+
+		// fill toward lower columns, carrying out of bit 0 into bit 63 of the previous word
+		carry = 0;
+		for (int w = myWords - 1; w >= 0; w--) {
+			int k = base + w;
+			long open = myOpen[k];
+			long full = fillDown(myFull[k] | (carry & open), open);
+			grew |= full != myFull[k];
+			myFull[k] = full;
+			carry = full << 63;
+		}
+		return grew;
+	}
+
+	// spread the bits of full toward bit 63 through consecutive bits of open
+	private static long fillUp(long full, long open) {
+		full |= open & (full << 1);
+		open &= open << 1;
+		full |= open & (full << 2);
+		open &= open << 2;
+		full |= open & (full << 4);
+		open &= open << 4;
+		full |= open & (full << 8);
+		open &= open << 8;
+		full |= open & (full << 16);
+		open &= open << 16;
+		return full | (open & (full << 32));
+	}
+
+	// spread the bits of full toward bit 0 through consecutive bits of open
+	private static long fillDown(long full, long open) {
+		full |= open & (full >>> 1);
+		open &= open >>> 1;
+		full |= open & (full >>> 2);
+		open &= open >>> 2;
+		full |= open & (full >>> 4);
+		open &= open >>> 4;
+		full |= open & (full >>> 8);
+		open &= open >>> 8;
+		full |= open & (full >>> 16);
+		open &= open >>> 16;
+		return full | (open & (full >>> 32));
+	}
+
+	/**
+	 * Returns an n-by-n grid in which each site is open independently with
+	 * probability p, drawing sites in row-major order.
+	 */
+	public static PercolationBitset sample(int n, double p, IRandom random) {
+		PercolationBitset perc = new PercolationBitset(n);
+		for (int row = 0; row < n; row++)
+			for (int col = 0; col < n; col++)
+				if (random.nextDouble() < p)
+					perc.myOpen[row * perc.myWords + (col >>> 6)] |= 1L << col;
+		for (long bits : perc.myOpen)
+			perc.myOpenSites += Long.bitCount(bits);
+		perc.push(0);
+		return perc;
+	}
+
+	// estimate the spanning probability at the threshold and time the fill against a scanline flood
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int trials = 20;
+		double p = 0.5927;
+		int spanning = 0;
+		long bitsetTime = 0, scanlineTime = 0;
+		for (int i = 0; i < trials; i++) {
+			PercolationBitset perc = sample(n, p, PercolationStats.trialRandom(i));
+			long start = System.nanoTime();
+			if (perc.percolates())
+				spanning++;
+			bitsetTime += System.nanoTime() - start;
+
+			PercolationScanline scan = new PercolationScanline(n);
+			start = System.nanoTime();
+			for (int row = 0; row < n; row++)
+				for (int col = 0; col < n; col++)
+					if (perc.isOpen(row, col))
+						scan.open(row, col);
+			scan.percolates();
+			scanlineTime += System.nanoTime() - start;
+		}
+
+		System.out.println("Bitset fill time (ms): " + bitsetTime / 1000000);
+		System.out.println("Scanline open + flood time (ms): " + scanlineTime / 1000000);
+		System.out.println("Spanning fraction at p = " + p + ": " + (double) spanning / trials);
+	}
+}
@@ -0,0 +1,184 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Progress of a <code>PercolationStats</code> run kept in a memory-mapped
+ * file, so a run that is killed can be resumed at the exact trial and open
+ * step where it stopped.
+ * <P>
+ * Trial i opens sites in the order given by
+ * <code>PercolationStats.trialRandom(i)</code>, so the grid and union-find
+ * state of a trial is fully determined by the trial index and the number of
+ * sites opened so far. The file therefore holds only a small header and the
+ * finished fractions; on resume the current trial's opens are replayed, which
+ * takes O(step) time. Every write is a single store into the mapped page, so
+ * recording a step never stalls the trial loop, and the page cache keeps the
+ * data even if the JVM dies. The file is forced to disk at most once a
+ * second (and by force()), so frequent short trials do not wait on the disk;
+ * after a machine crash the run resumes from the last forced trial.
+ * <P>
+ * The header records the seed and a fingerprint of the random generator, so
+ * a run is never resumed with a different generator than it started with.
+ * <P>
+ * Layout: int magic, int N, int T, int seed, long generator fingerprint, int
+ * completed trials, int step within the current trial, then T doubles of
+ * fractions. The file is mapped as one buffer, so it is limited to
+ * Integer.MAX_VALUE bytes, about 268 million trials.
+ * <P>
+ * close() forces the file and closes its channel. Java cannot unmap a buffer
+ * explicitly, so the mapping itself is released once the closed checkpoint
+ * is garbage collected; a closed checkpoint cannot be used again.
+ */
+
+public class PercolationCheckpoint implements Closeable {
+	private static final int MAGIC = 0x50435032; // "PCP2"
+	private static final int GENERATOR = 16;
+	private static final int COMPLETED = 24;
+	private static final int STEP = 28;
+	private static final int FRACTIONS = 32;
+
+	// least time between forcing finished trials to disk
+	private static final long FORCE_NANOS = 1000000000L;
+
+	private FileChannel myChannel;
+	private MappedByteBuffer myBuffer;
+	private long myLastForce;
+
+	/**
+	 * Open the checkpoint for an N-by-N, T-trial run with the given seed and
+	 * generator fingerprint (any value that differs between generators, such
+	 * as <code>PercolationStats.generatorFingerprint()</code>), creating it if
+	 * file does not exist. An existing file must have been written for the
+	 * same N, T, seed and generator.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if T is not positive or the file would exceed
+	 *             Integer.MAX_VALUE bytes
+	 */
+	public PercolationCheckpoint(Path file, int N, int T, int seed, long generator) {
+		long bytes = FRACTIONS + (long) T * Double.BYTES;
+		if (T <= 0 || bytes > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("cannot checkpoint " + T + " trials in one mapping");
+		try {
+			myChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			boolean fresh = myChannel.size() == 0;
+			if (!fresh && myChannel.size() != bytes) {
+				closeQuietly();
+				throw new IllegalStateException(file + " is not a checkpoint for N = " + N + ", T = " + T);
+			}
+			myBuffer = myChannel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+		}
+		catch (IOException e) {
+			closeQuietly();
+			throw new IllegalStateException("cannot map " + file, e);
+		}
+
+		try {
+			checkHeader(file, N, T, seed, generator);
+		}
+		catch (IllegalStateException e) {
+			closeQuietly();
+			throw e;
+		}
+		myLastForce = System.nanoTime();
+	}
+
+	// write a new header, or check that an existing one matches the run
+	private void checkHeader(Path file, int N, int T, int seed, long generator) {
+		if (myBuffer.getInt(0) == 0) {
+			myBuffer.putInt(4, N);
+			myBuffer.putInt(8, T);
+			myBuffer.putInt(12, seed);
+			myBuffer.putLong(GENERATOR, generator);
+			myBuffer.putInt(COMPLETED, 0);
+			myBuffer.putInt(STEP, 0);
+			myBuffer.putInt(0, MAGIC);
+			myBuffer.force();
+		}
+		else if (myBuffer.getInt(0) != MAGIC || myBuffer.getInt(4) != N || myBuffer.getInt(8) != T
+				|| myBuffer.getInt(12) != seed)
+			throw new IllegalStateException(file + " is not a checkpoint for N = " + N + ", T = " + T
+					+ ", seed = " + seed);
+		else if (myBuffer.getLong(GENERATOR) != generator)
+			throw new IllegalStateException(file + " was written with a different random generator");
+	}
+
+	// returns the byte offset of trial's fraction, which fits in an int once the constructor has checked T
+	private static int fractionOffset(int trial) {
+		return Math.toIntExact(FRACTIONS + (long) trial * Double.BYTES);
+	}
+
+	// returns the number of trials that have finished
+	public int completedTrials() {
+		return myBuffer.getInt(COMPLETED);
+	}
+
+	// returns the number of sites opened so far in the first unfinished trial
+	public int step() {
+		return myBuffer.getInt(STEP);
+	}
+
+	// record that step sites have been opened in the first unfinished trial
+	public void recordStep(int step) {
+		myBuffer.putInt(STEP, step);
+	}
+
+	/**
+	 * Record the fraction of the first unfinished trial and start the next
+	 * trial at step 0, flushing the file to disk if it has not been flushed
+	 * for a second.
+	 */
+	public void recordTrial(double fraction) {
+		int trial = completedTrials();
+		myBuffer.putDouble(fractionOffset(trial), fraction);
+		myBuffer.putInt(STEP, 0);
+		myBuffer.putInt(COMPLETED, trial + 1);
+		if (System.nanoTime() - myLastForce >= FORCE_NANOS)
+			force();
+	}
+
+	// flush everything recorded so far to disk
+	public void force() {
+		myBuffer.force();
+		myLastForce = System.nanoTime();
+	}
+
+	// returns the fractions of all finished trials, in trial order
+	public double[] fractions() {
+		double[] fractions = new double[completedTrials()];
+		for (int i = 0; i < fractions.length; i++)
+			fractions[i] = myBuffer.getDouble(fractionOffset(i));
+		return fractions;
+	}
+
+	/**
+	 * Flush everything recorded so far and close the file; does nothing if
+	 * already closed
+	 */
+	public void close() throws IOException {
+		if (myChannel == null)
+			return;
+		myBuffer.force();
+		myBuffer = null;
+		FileChannel channel = myChannel;
+		myChannel = null;
+		channel.close();
+	}
+
+	// close the channel after a failed open, keeping the original exception
+	private void closeQuietly() {
+		try {
+			if (myChannel != null)
+				myChannel.close();
+		}
+		catch (IOException e) {
+			// already failing
+		}
+		myChannel = null;
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ * A <code>PercolationUFFlags</code> whose union-find is a
+ * <code>ClusterUnionFind</code>, so cluster statistics (the size histogram,
+ * largest cluster, mean cluster sizes and radius of gyration) are available
+ * in O(1) after every open, in the same pass that decides percolation.
+ */
+
+public class PercolationClusters extends PercolationUFFlags {
+	private ClusterUnionFind myClusters;
+
+	/**
+	 * Constructs a Percolation object for a nxn grid that tracks its cluster
+	 * statistics
+	 */
+	public PercolationClusters(int n) {
+		this(n, new ClusterUnionFind(n));
+	}
+
+	private PercolationClusters(int n, ClusterUnionFind clusters) {
+		super(n, clusters);
+		myClusters = clusters;
+	}
+
+	// activate a newly opened site before it is joined to its neighbors
+	public void open(int i, int j) {
+		int index = getIndex(i, j);
+		if (mySite[index] == BLOCKED)
+			myClusters.activate(index);
+		super.open(i, j);
+	}
+
+	// returns the cluster statistics of the open sites
+	public ClusterUnionFind clusters() {
+		return myClusters;
+	}
+
+	// print the cluster statistics at the percolation threshold of one trial
+	public static void main(String[] args) {
+		int N = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		PercolationClusters perc = new PercolationClusters(N);
+		int[] sites = TrialDriver.shuffledSites(N, PercolationStats.trialRandom(0));
+		int opened = TrialDriver.openUntilPercolates(perc, N, sites);
+		ClusterUnionFind clusters = perc.clusters();
+
+		System.out.println("Threshold: " + (double) opened / (N * N));
+		System.out.println("Clusters: " + clusters.clusters() + "  singletons: " + clusters.clusters(1));
+		System.out.println("Largest cluster: " + clusters.largestCluster() + "  radius of gyration: "
+				+ clusters.largestRadiusOfGyration());
+		System.out.println("Mean cluster size: " + clusters.meanClusterSize() + "  weighted: "
+				+ clusters.weightedMeanClusterSize());
+	}
+}
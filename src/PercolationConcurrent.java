@@ -0,0 +1,148 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Simulate a system to see its Percolation Threshold using a lock-free
+ * <code>ConcurrentUF</code>, so that many threads can open sites of one grid
+ * at the same time. Every method may be called from any thread.
+ * <P>
+ * Opening a site first publishes it as OPEN and then unions it with its open
+ * neighbors. When two adjacent sites are opened concurrently, at least one of
+ * the two threads sees the other site open and joins them. percolates() and
+ * isFull() are linearizable queries on the union-find structure.
+ */
+
+public class PercolationConcurrent implements IPercolate {
+	private int mySize;
+	private AtomicIntegerArray myGrid;
+	private AtomicInteger myOpenSites;
+	private ConcurrentUF myUnion;
+
+	private int top;
+	private int bottom;
+
+	/**
+	 * Constructs a Percolation object for a nxn grid with all sites blocked
+	 */
+	public PercolationConcurrent(int n) {
+		if (n <= 0) throw new IllegalArgumentException();
+		mySize = n;
+		myGrid = new AtomicIntegerArray(n * n);
+		myOpenSites = new AtomicInteger();
+		top = n * n;
+		bottom = n * n + 1;
+		myUnion = new ConcurrentUF(n * n + 2);
+	}
+
+	/**
+	 * Return the row-major index of (row,col), throwing an exception if it is
+	 * out-of-bounds.
+	 */
+	private int getIndex(int row, int col) {
+		if (row < 0 || row >= mySize || col < 0 || col >= mySize)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + row + "," + col + " is bad!");
+		return row * mySize + col;
+	}
+
+	public void open(int i, int j) {
+		int index = getIndex(i, j);
+		// only the thread that wins the transition connects the site
+		if (!myGrid.compareAndSet(index, BLOCKED, OPEN))
+			return;
+
+		myOpenSites.incrementAndGet();
+		connect(i, j, index);
+	}
+
+	public boolean isOpen(int i, int j) {
+		return myGrid.get(getIndex(i, j)) != BLOCKED;
+	}
+
+	public boolean isFull(int i, int j) {
+		return myUnion.connected(top, getIndex(i, j));
+	}
+
+	public int numberOfOpenSites() {
+		return myOpenSites.get();
+	}
+
+	public boolean percolates() {
+		return myUnion.connected(top, bottom);
+	}
+
+	/**
+	 * Block every site again, reusing the grid and union-find. Unlike the
+	 * other methods, this must not run while other threads use the object.
+	 */
+	public void reset() {
+		for (int index = 0; index < myGrid.length(); index++)
+			myGrid.set(index, BLOCKED);
+		myUnion.initialize(mySize * mySize + 2);
+		myOpenSites.set(0);
+	}
+
+	/**
+	 * Returns the state of every site. Sites opened by other threads while
+	 * this runs may or may not be included, and a site may be reported OPEN
+	 * although a concurrent union has just made it FULL.
+	 */
+	public byte[] snapshot() {
+		byte[] states = new byte[mySize * mySize];
+		for (int index = 0; index < states.length; index++) {
+			if (myGrid.get(index) == BLOCKED)
+				states[index] = BLOCKED;
+			else
+				states[index] = (byte) (myUnion.connected(top, index) ? FULL : OPEN);
+		}
+		return states;
+	}
+
+	/**
+	 * Open sites[0] through sites[count-1] (row-major indices) using the given
+	 * number of threads, returning once all of them are open and connected.
+	 */
+	public void openAll(int[] sites, int count, int threads) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.submit(() -> IntStream.range(0, count).parallel()
+					.forEach(k -> open(sites[k] / mySize, sites[k] % mySize))).join();
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Connect new site (row, col) with row-major index index to the virtual
+	 * top/bottom and all adjacent open sites
+	 */
+	private void connect(int row, int col, int index) {
+		if (row == 0) myUnion.union(index, top);
+		if (row == mySize - 1) myUnion.union(index, bottom);
+
+		if (row > 0 && myGrid.get(index - mySize) != BLOCKED) myUnion.union(index, index - mySize);
+		if (row < mySize - 1 && myGrid.get(index + mySize) != BLOCKED) myUnion.union(index, index + mySize);
+		if (col > 0 && myGrid.get(index - 1) != BLOCKED) myUnion.union(index, index - 1);
+		if (col < mySize - 1 && myGrid.get(index + 1) != BLOCKED) myUnion.union(index, index + 1);
+	}
+
+	// open a fraction of the sites of one large grid with 1 thread and then with all of them
+	public static void main(String[] args) {
+		int N = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		double p = 0.6;
+		int[] sites = TrialDriver.shuffledSites(N, PercolationStats.trialRandom(0));
+		int count = (int) (p * N * N);
+
+		for (int threads : new int[] { 1, Runtime.getRuntime().availableProcessors() }) {
+			PercolationConcurrent perc = new PercolationConcurrent(N);
+			long start = System.currentTimeMillis();
+			perc.openAll(sites, count, threads);
+			long end = System.currentTimeMillis();
+			System.out.println("Threads: " + threads + "  Run Time: " + (end - start) + "  Percolates: "
+					+ perc.percolates());
+		}
+	}
+}
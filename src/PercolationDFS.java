@@ -20,6 +20,9 @@ public class PercolationDFS implements IPercolate {
 	// instance variable for storing grid state
 	public int[][] myGrid;
 	private int myOpenSites;
+	protected IPercolateListener myListener;
+	protected int myNewlyFull; // sites made full by the current open, counted only with a listener
+	private boolean myReportedPercolation;
 
 	/**
 	 * Initialize a grid so that all cells are blocked.
@@ -35,6 +38,14 @@ public class PercolationDFS implements IPercolate {
 			Arrays.fill(row, BLOCKED);
 	}
 	
+	// block every site again, reusing the grid
+	public void reset() {
+		for (int[] row : myGrid)
+			Arrays.fill(row, BLOCKED);
+		myOpenSites = 0;
+		myReportedPercolation = false;
+	}
+	
 	// open a site if it is not already open and run dfs
 	public void open(int i, int j) {
 		if (i < 0 || i >= myGrid.length || j < 0 || j >= myGrid[0].length)
@@ -46,6 +57,44 @@ public class PercolationDFS implements IPercolate {
 		
 		myOpenSites++;
 		myGrid[i][j] = OPEN;
+		if (myListener == null) {
+			updateOnOpen(i, j);
+			return;
+		}
+		
+		myListener.siteOpened(i, j);
+		myNewlyFull = 0;
+		updateOnOpen(i, j);
+		if (myNewlyFull > 0)
+			myListener.regionFilled(i, j, myNewlyFull);
+		if (!myReportedPercolation && percolates()) {
+			myReportedPercolation = true;
+			myListener.percolated();
+		}
+	}
+	
+	// send open, fill and percolation events to listener
+	public void setListener(IPercolateListener listener) {
+		myListener = listener;
+		myReportedPercolation = percolates();
+	}
+	
+	public boolean supportsListener() {
+		return true;
+	}
+	
+	/**
+	 * Update FULL marks after site (row i, col j) has been opened. Subclasses
+	 * can override this to avoid re-flooding the whole grid on every open.
+	 * 
+	 * @param i
+	 *            row index of the newly opened cell
+	 * @param j
+	 *            column index of the newly opened cell
+	 */
+	protected void updateOnOpen(int i, int j) {
+		// remember which cells were full so that only newly full ones are reported
+		byte[] before = myListener == null ? null : snapshot();
 		
 		// flush grid; mark all full cells as open
 		for (int k = 0; k < myGrid.length; k++)
@@ -58,6 +107,14 @@ public class PercolationDFS implements IPercolate {
 			if (isOpen(0, col))
 				dfs(0, col);
 		}
+		
+		if (before != null)
+			for (int k = 0; k < myGrid.length; k++)
+				for (int l = 0; l < myGrid[k].length; l++)
+					if (myGrid[k][l] == FULL && before[k * myGrid.length + l] != FULL) {
+						myListener.siteFilled(k, l);
+						myNewlyFull++;
+					}
 	}
 	
 	// returns true iff a cell is open
@@ -85,6 +142,16 @@ public class PercolationDFS implements IPercolate {
 		return myOpenSites;
 	}
 
+	// copy the grid, which already holds BLOCKED/OPEN/FULL for every cell
+	public byte[] snapshot() {
+		int n = myGrid.length;
+		byte[] states = new byte[n * n];
+		for (int row = 0; row < n; row++)
+			for (int col = 0; col < n; col++)
+				states[row * n + col] = (byte) myGrid[row][col];
+		return states;
+	}
+
 	// run DFS for every open cell in top row to find all full sites
 	// checks bottom row for filled sites; if filled, return true; else, return false
 	public boolean percolates() {
@@ -109,7 +176,7 @@ public class PercolationDFS implements IPercolate {
 	 * @param col
 	 *            is the col coordinate of the cell being checked/marked
 	 */
-	private void dfs(int row, int col) {
+	protected void dfs(int row, int col) {
 		// checks for out of bounds
 		if (row < 0 || row >= myGrid.length || col < 0 || col >= myGrid.length)
 			return;
@@ -0,0 +1,99 @@
+import java.util.Arrays;
+
+/**
+ * Simulate percolation thresholds using an incremental flood-fill. Unlike
+ * <code>PercolationDFS</code>, FULL marks are never cleared: a newly opened
+ * site is flooded from only when it is in the top row or next to a FULL
+ * neighbor, so each site is marked FULL at most once and a whole trial runs in
+ * amortized O(N^2) time. Whether the system percolates is maintained as a flag
+ * set when the flood reaches the bottom row.
+ * <P>
+ * The flood keeps its pending cells on a primitive <code>int[]</code> stack
+ * instead of recursing, so clusters of millions of cells do not overflow the
+ * thread's stack.
+ */
+
+public class PercolationDFSFast extends PercolationDFS {
+	private boolean myPercolates;
+	private int[] myStack; // row-major indices of cells marked FULL whose neighbors are not yet visited
+	private int myStackSize;
+
+	/**
+	 * Initialize a grid so that all cells are blocked.
+	 * 
+	 * @param n
+	 *            is the size of the simulated (square) grid
+	 */
+	public PercolationDFSFast(int n) {
+		super(n);
+		myPercolates = false;
+		myStack = new int[64];
+		myStackSize = 0;
+	}
+
+	// block every site again and clear the percolation flag
+	@Override
+	public void reset() {
+		super.reset();
+		myPercolates = false;
+	}
+
+	// flood from the new site only if it can be reached from the top
+	@Override
+	protected void updateOnOpen(int row, int col) {
+		if (row == 0 || isFullNeighbor(row - 1, col) || isFullNeighbor(row + 1, col)
+				|| isFullNeighbor(row, col - 1) || isFullNeighbor(row, col + 1))
+			dfs(row, col);
+	}
+
+	// returns the maintained flag; no sweep of the grid is needed
+	@Override
+	public boolean percolates() {
+		return myPercolates;
+	}
+
+	/**
+	 * Mark all cells that are open and reachable from (row,col), recording
+	 * when the bottom row is reached.
+	 */
+	@Override
+	protected void dfs(int row, int col) {
+		int n = myGrid.length;
+		fill(row, col);
+		while (myStackSize > 0) {
+			int index = myStack[--myStackSize];
+			int r = index / n, c = index % n;
+			fill(r - 1, c); // up
+			fill(r, c - 1); // left
+			fill(r, c + 1); // right
+			fill(r + 1, c); // down
+		}
+	}
+
+	// mark (row, col) FULL and push it if it is in bounds and OPEN
+	private void fill(int row, int col) {
+		if (row < 0 || row >= myGrid.length || col < 0 || col >= myGrid[0].length)
+			return;
+		if (myGrid[row][col] != OPEN)
+			return;
+
+		myGrid[row][col] = FULL;
+		if (myListener != null) {
+			myListener.siteFilled(row, col);
+			myNewlyFull++;
+		}
+		if (row == myGrid.length - 1)
+			myPercolates = true;
+
+		if (myStackSize == myStack.length)
+			myStack = Arrays.copyOf(myStack, myStack.length * 2);
+		myStack[myStackSize++] = row * myGrid.length + col;
+	}
+
+	// returns true iff (row, col) is in bounds and FULL
+	private boolean isFullNeighbor(int row, int col) {
+		if (row < 0 || row >= myGrid.length || col < 0 || col >= myGrid[0].length)
+			return false;
+		return myGrid[row][col] == FULL;
+	}
+}
@@ -0,0 +1,263 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Records the animation of <code>PercolationVisualizer</code> without a window.
+ * Sites are drawn straight into an offscreen <code>BufferedImage</code> (black
+ * for blocked, white for open, cyan for full, scale pixels per cell) and a
+ * frame is written every k opens with no pauses in between, so animations of
+ * large grids can be made on headless machines.
+ * <P>
+ * Frames are written either as a numbered PNG sequence (frame00000.png, ...)
+ * in a directory, or as one raw stream of 8-bit RGB pixels, frame after frame,
+ * that video tools can read directly. Each frame is copied and encoded on a
+ * single background thread; the simulation only waits if that thread falls
+ * more than a bounded number of frames behind.
+ */
+
+public class PercolationFrameWriter implements AutoCloseable {
+	public static final int BLOCKED_RGB = 0x000000;
+	public static final int OPEN_RGB = 0xFFFFFF;
+	public static final int FULL_RGB = 0x00FFFF;
+
+	// frames waiting to be encoded before the simulation waits for the encoder
+	public static final int QUEUED_FRAMES = 16;
+
+	private int mySize;
+	private int myScale;
+	private int myEvery;
+	private IPercolate myPerc;
+	private PercolationPainter myPainter;
+
+	private BufferedImage myImage;
+	private int[] myPixels;
+	private int myFrames;
+
+	private Path myDirectory;
+	private OutputStream myStream;
+	private ThreadPoolExecutor myEncoder;
+	private volatile IOException myError;
+
+	/**
+	 * Write frames of the n-by-n system perc as PNG files in directory, which
+	 * is created if needed.
+	 *
+	 * @param scale
+	 *            width and height of each cell in pixels
+	 * @param every
+	 *            number of opens between frames
+	 */
+	public PercolationFrameWriter(int n, IPercolate perc, int scale, int every, Path directory) throws IOException {
+		this(n, perc, scale, every);
+		myDirectory = Files.createDirectories(directory);
+	}
+
+	/**
+	 * Write frames of the n-by-n system perc to out as raw RGB pixels, three
+	 * bytes each, row by row, (n * scale)^2 pixels per frame. The stream is
+	 * closed by close().
+	 *
+	 * @param scale
+	 *            width and height of each cell in pixels
+	 * @param every
+	 *            number of opens between frames
+	 */
+	public PercolationFrameWriter(int n, IPercolate perc, int scale, int every, OutputStream out) {
+		this(n, perc, scale, every);
+		myStream = new BufferedOutputStream(out, 1 << 16);
+	}
+
+	private PercolationFrameWriter(int n, IPercolate perc, int scale, int every) {
+		if (n <= 0 || scale <= 0 || every <= 0) throw new IllegalArgumentException();
+		mySize = n;
+		myPerc = perc;
+		myScale = scale;
+		myEvery = every;
+		myImage = new BufferedImage(n * scale, n * scale, BufferedImage.TYPE_INT_RGB);
+		myPixels = ((DataBufferInt) myImage.getRaster().getDataBuffer()).getData();
+		myFrames = 0;
+
+		// one encoding thread; a full queue makes the simulation wait instead of dropping frames
+		myEncoder = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUED_FRAMES),
+				r -> {
+					Thread t = new Thread(r, "frame-writer");
+					t.setDaemon(true);
+					return t;
+				}, (task, executor) -> {
+					try {
+						executor.getQueue().put(task);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException(e);
+					}
+				});
+
+		// repaint only the cells the percolator reports as changed, if it can
+		myPainter = new PercolationPainter(perc) {
+			protected void paint(int i, int j, int state) {
+				draw(i, j, state == IPercolate.FULL ? FULL_RGB : OPEN_RGB);
+			}
+		};
+		drawGrid();
+	}
+
+	// fill the scale-by-scale block of pixels for cell (row, col) with rgb
+	private void draw(int row, int col, int rgb) {
+		int width = mySize * myScale;
+		int start = row * myScale * width + col * myScale;
+		for (int y = 0; y < myScale; y++)
+			Arrays.fill(myPixels, start + y * width, start + y * width + myScale, rgb);
+	}
+
+	// redraw every cell from a snapshot of the percolator
+	private void drawGrid() {
+		byte[] states = myPerc.snapshot();
+		for (int row = 0; row < mySize; row++)
+			for (int col = 0; col < mySize; col++) {
+				byte state = states[row * mySize + col];
+				draw(row, col, state == IPercolate.FULL ? FULL_RGB : state == IPercolate.OPEN ? OPEN_RGB : BLOCKED_RGB);
+			}
+	}
+
+	// returns the offscreen image holding the current frame
+	public BufferedImage image() {
+		return myImage;
+	}
+
+	// returns the number of frames written or queued so far
+	public int frames() {
+		return myFrames;
+	}
+
+	/**
+	 * Queue a copy of the current image to be written as the next frame.
+	 *
+	 * @throws UncheckedIOException
+	 *             if writing an earlier frame failed
+	 */
+	public void writeFrame() {
+		checkError();
+		if (!myPainter.isIncremental())
+			drawGrid();
+		int[] pixels = myPixels.clone();
+		int number = myFrames++;
+		myEncoder.execute(() -> {
+			if (myError != null)
+				return;
+			try {
+				encode(pixels, number);
+			}
+			catch (IOException e) {
+				myError = e;
+			}
+		});
+	}
+
+	// runs on the encoder thread
+	private void encode(int[] pixels, int number) throws IOException {
+		int width = mySize * myScale;
+		if (myDirectory != null) {
+			BufferedImage image = new BufferedImage(width, width, BufferedImage.TYPE_INT_RGB);
+			image.setRGB(0, 0, width, width, pixels, 0, width);
+			ImageIO.write(image, "png", myDirectory.resolve(String.format("frame%05d.png", number)).toFile());
+			return;
+		}
+		byte[] rgb = new byte[3 * pixels.length];
+		for (int p = 0, b = 0; p < pixels.length; p++) {
+			rgb[b++] = (byte) (pixels[p] >> 16);
+			rgb[b++] = (byte) (pixels[p] >> 8);
+			rgb[b++] = (byte) pixels[p];
+		}
+		myStream.write(rgb);
+	}
+
+	/**
+	 * Open sites in the given order, writing a frame every k opens, until the
+	 * system percolates or the sites run out; a last frame shows the final
+	 * state. Returns the number of sites opened.
+	 *
+	 * @param sites
+	 *            row-major site indices in the order to open them
+	 */
+	public int run(int[] sites) {
+		writeFrame();
+		int opened = 0;
+		for (int cell : sites) {
+			myPerc.open(cell / mySize, cell % mySize);
+			opened++;
+			if (myPainter.percolates())
+				break;
+			if (opened % myEvery == 0)
+				writeFrame();
+		}
+		writeFrame();
+		return opened;
+	}
+
+	/**
+	 * Wait for every queued frame to be written and close the output.
+	 *
+	 * @throws IOException
+	 *             if any frame could not be written
+	 */
+	public void close() throws IOException {
+		myEncoder.shutdown();
+		try {
+			myEncoder.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while writing frames", e);
+		}
+		if (myStream != null)
+			myStream.close();
+		if (myError != null)
+			throw myError;
+	}
+
+	private void checkError() {
+		if (myError != null)
+			throw new UncheckedIOException(myError);
+	}
+
+	/**
+	 * Record an animation without a window: arguments are N, the number of
+	 * opens per frame, and a directory for PNG frames or a file ending in .rgb
+	 * for a raw RGB stream.
+	 */
+	public static void main(String[] args) throws IOException {
+		int N = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int every = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+		Path out = Paths.get(args.length > 2 ? args[2] : "frames");
+		int scale = Math.max(1, 800 / N);
+
+		IPercolate perc = new PercolationUF(N);
+		int[] sites = TrialDriver.shuffledSites(N, new SplitMixRandom(PercolationVisualizer.RANDOM_SEED));
+		long start = System.currentTimeMillis();
+		PercolationFrameWriter writer = out.toString().endsWith(".rgb")
+				? new PercolationFrameWriter(N, perc, scale, every, Files.newOutputStream(out))
+				: new PercolationFrameWriter(N, perc, scale, every, out);
+		try (writer) {
+			writer.run(sites);
+		}
+		long end = System.currentTimeMillis();
+
+		System.out.println("Run Time: " + (end - start));
+		System.out.println("Frames: " + writer.frames() + " of " + N * scale + "x" + N * scale + " to " + out);
+	}
+}
@@ -0,0 +1,168 @@
+import java.nio.file.Path;
+
+/**
+ * Simulate a system to see its Percolation Threshold on grids too large for
+ * <code>int</code> site indices. Sites are numbered with <code>long</code>
+ * row-major indices and the union-find structure lives in an
+ * <code>OffHeapLongArray</code>, either in direct memory or in a memory-mapped
+ * file, so N can go well past 46,340 (N*N past 2^31) and lattices of 10^10
+ * sites fit without touching the Java heap.
+ * <P>
+ * Each site takes one long, encoded as in <code>CompactUF</code>: zero for a
+ * blocked site, -size for a root, and parent+1 otherwise. Roots are linked by
+ * size and paths are halved on every find.
+ */
+
+public class PercolationOffHeap implements IPercolate {
+	private static final long BLOCKED_SITE = 0;
+
+	private int mySize;
+	private long myOpenSites;
+	private OffHeapLongArray myParent;
+
+	private long top;
+	private long bottom;
+
+	/**
+	 * Constructs a Percolation object for a nxn grid with all sites blocked,
+	 * keeping its state in direct memory
+	 */
+	public PercolationOffHeap(int n) {
+		this(n, null);
+	}
+
+	/**
+	 * Constructs a Percolation object for a nxn grid whose state is mapped
+	 * from file. A new file starts with all sites blocked; an existing file
+	 * written by an earlier object of the same size continues from its state,
+	 * except that numberOfOpenSites() restarts at zero.
+	 */
+	public PercolationOffHeap(int n, Path file) {
+		if (n <= 0) throw new IllegalArgumentException();
+		mySize = n;
+		myOpenSites = 0;
+		top = (long) n * n;
+		bottom = top + 1;
+		myParent = new OffHeapLongArray(top + 2, file);
+		if (myParent.get(top) == BLOCKED_SITE)
+			myParent.set(top, -1);
+		if (myParent.get(bottom) == BLOCKED_SITE)
+			myParent.set(bottom, -1);
+	}
+
+	/**
+	 * Return the row-major index of (row,col), throwing an exception if it is
+	 * out-of-bounds.
+	 */
+	public long getIndex(int row, int col) {
+		if (row < 0 || row >= mySize || col < 0 || col >= mySize)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + row + "," + col + " is bad!");
+		return (long) row * mySize + col;
+	}
+
+	public void open(int i, int j) {
+		long index = getIndex(i, j);
+		if (myParent.get(index) != BLOCKED_SITE)
+			return;
+
+		myOpenSites++;
+		myParent.set(index, -1);
+
+		if (i == 0) union(index, top);
+		if (i == mySize - 1) union(index, bottom);
+		if (i > 0 && isOpen(index - mySize)) union(index, index - mySize);
+		if (i < mySize - 1 && isOpen(index + mySize)) union(index, index + mySize);
+		if (j > 0 && isOpen(index - 1)) union(index, index - 1);
+		if (j < mySize - 1 && isOpen(index + 1)) union(index, index + 1);
+	}
+
+	public boolean isOpen(int i, int j) {
+		return isOpen(getIndex(i, j));
+	}
+
+	public boolean isFull(int i, int j) {
+		return find(getIndex(i, j)) == find(top);
+	}
+
+	/**
+	 * Returns the number of sites opened by this object, saturating at
+	 * Integer.MAX_VALUE; see openSiteCount() for the exact count
+	 */
+	public int numberOfOpenSites() {
+		return (int) Math.min(myOpenSites, Integer.MAX_VALUE);
+	}
+
+	// returns the number of sites opened by this object
+	public long openSiteCount() {
+		return myOpenSites;
+	}
+
+	public boolean percolates() {
+		return find(top) == find(bottom);
+	}
+
+	/**
+	 * Block every site again, reusing the off-heap array; a mapped file is
+	 * overwritten with the blocked grid
+	 */
+	public void reset() {
+		myParent.fill(BLOCKED_SITE);
+		myParent.set(top, -1);
+		myParent.set(bottom, -1);
+		myOpenSites = 0;
+	}
+
+	/**
+	 * Returns the state of every site; only supported while N * N fits in an
+	 * array
+	 */
+	public byte[] snapshot() {
+		if (top > Integer.MAX_VALUE - 8)
+			throw new UnsupportedOperationException(mySize + " x " + mySize + " grid is too large to snapshot");
+		long topRoot = find(top);
+		byte[] states = new byte[(int) top];
+		for (int index = 0; index < states.length; index++) {
+			if (!isOpen(index))
+				states[index] = BLOCKED;
+			else
+				states[index] = (byte) (find(index) == topRoot ? FULL : OPEN);
+		}
+		return states;
+	}
+
+	private boolean isOpen(long index) {
+		return myParent.get(index) != BLOCKED_SITE;
+	}
+
+	// returns root of the component containing x, halving the path on the way
+	private long find(long x) {
+		while (myParent.get(x) > 0) {
+			long p = myParent.get(x) - 1;
+			long gp = myParent.get(p);
+			if (gp <= 0)
+				return p;
+			myParent.set(x, gp);
+			x = gp - 1;
+		}
+		return x;
+	}
+
+	// merge components containing open sites p and q, smaller under larger
+	private void union(long p, long q) {
+		long rootP = find(p);
+		long rootQ = find(q);
+		if (rootP == rootQ) return;
+
+		long sizeP = myParent.get(rootP);
+		long sizeQ = myParent.get(rootQ);
+		if (sizeP > sizeQ) {
+			myParent.set(rootQ, sizeP + sizeQ);
+			myParent.set(rootP, rootQ + 1);
+		}
+		else {
+			myParent.set(rootP, sizeP + sizeQ);
+			myParent.set(rootQ, rootP + 1);
+		}
+	}
+}
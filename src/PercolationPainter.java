@@ -0,0 +1,51 @@
+/**
+ * Keeps a picture of an <code>IPercolate</code> up to date for the
+ * visualizers. If the percolator supports listeners, only the sites it
+ * reports as opened or filled are painted and percolation is noticed from its
+ * event; otherwise the caller repaints from snapshots and percolates() asks
+ * the percolator after every open.
+ */
+
+public abstract class PercolationPainter implements IPercolateListener {
+	private IPercolate myPerc;
+	private boolean myIncremental;
+	private boolean myPercolated;
+
+	/**
+	 * Paint perc, listening to it if it supports listeners
+	 */
+	public PercolationPainter(IPercolate perc) {
+		myPerc = perc;
+		myIncremental = perc.supportsListener();
+		if (myIncremental)
+			perc.setListener(this);
+	}
+
+	/**
+	 * Paint site (row i, col j) in the given state, IPercolate.OPEN or
+	 * IPercolate.FULL
+	 */
+	protected abstract void paint(int i, int j, int state);
+
+	public void siteOpened(int i, int j) {
+		paint(i, j, IPercolate.OPEN);
+	}
+
+	public void siteFilled(int i, int j) {
+		paint(i, j, IPercolate.FULL);
+	}
+
+	public void percolated() {
+		myPercolated = true;
+	}
+
+	// true iff changed sites are painted as they change, so no snapshot is needed after an open
+	public boolean isIncremental() {
+		return myIncremental;
+	}
+
+	// true iff the system percolates, without a query when the event has been seen
+	public boolean percolates() {
+		return myIncremental ? myPercolated : myPerc.percolates();
+	}
+}
@@ -0,0 +1,190 @@
+import java.util.Arrays;
+
+/**
+ * Simulate percolation thresholds using an iterative scanline (span)
+ * flood-fill. Instead of recursing once per cell as <code>PercolationDFS</code>
+ * does, whole horizontal runs of open cells are filled at once and only one
+ * seed per run in the rows above and below is pushed onto a primitive
+ * <code>int[]</code> work stack. The stack lives on the heap, so long
+ * snake-shaped clusters on large grids cannot overflow the thread stack.
+ * <P>
+ * Like <code>PercolationDFSFast</code>, FULL marks are kept between opens and
+ * a flood starts only from a newly opened site that is reachable from the top.
+ */
+
+public class PercolationScanline implements IPercolate {
+	public int[][] myGrid;
+	private int myOpenSites;
+	private boolean myPercolates;
+	private IPercolateListener myListener;
+	private int myNewlyFull;
+
+	// work stack of (row, col) seeds stored as consecutive pairs
+	private int[] myStack;
+	private int myStackSize;
+
+	/**
+	 * Initialize a grid so that all cells are blocked.
+	 *
+	 * @param n
+	 *            is the size of the simulated (square) grid
+	 */
+	public PercolationScanline(int n) {
+		if (n <= 0) throw new IllegalArgumentException();
+		myOpenSites = 0;
+		myPercolates = false;
+		myGrid = new int[n][n];
+		for (int[] row : myGrid)
+			Arrays.fill(row, BLOCKED);
+		myStack = new int[64];
+		myStackSize = 0;
+	}
+
+	// block every site again, reusing the grid and work stack
+	public void reset() {
+		for (int[] row : myGrid)
+			Arrays.fill(row, BLOCKED);
+		myOpenSites = 0;
+		myPercolates = false;
+	}
+
+	// open a site if it is not already open and flood from it if it is reachable from the top
+	public void open(int i, int j) {
+		if (i < 0 || i >= myGrid.length || j < 0 || j >= myGrid[0].length)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + i + "," + j + " is bad!");
+
+		if (myGrid[i][j] != BLOCKED)
+			return;
+
+		myOpenSites++;
+		myGrid[i][j] = OPEN;
+		if (myListener != null)
+			myListener.siteOpened(i, j);
+
+		if (i == 0 || isFullNeighbor(i - 1, j) || isFullNeighbor(i + 1, j)
+				|| isFullNeighbor(i, j - 1) || isFullNeighbor(i, j + 1)) {
+			boolean percolated = myPercolates;
+			myNewlyFull = 0;
+			fill(i, j);
+			if (myListener != null) {
+				myListener.regionFilled(i, j, myNewlyFull);
+				if (!percolated && myPercolates)
+					myListener.percolated();
+			}
+		}
+	}
+
+	// returns true iff a cell is open
+	public boolean isOpen(int i, int j) {
+		if (i < 0 || i >= myGrid.length || j < 0 || j >= myGrid[0].length)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + i + "," + j + " is bad!");
+
+		return myGrid[i][j] == OPEN;
+	}
+
+	// returns true iff a cell is full
+	public boolean isFull(int i, int j) {
+		if (i < 0 || i >= myGrid.length || j < 0 || j >= myGrid[0].length)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + i + "," + j + " is bad!");
+
+		return myGrid[i][j] == FULL;
+	}
+
+	// returns the number of calls to open new sites
+	public int numberOfOpenSites() {
+		return myOpenSites;
+	}
+
+	// returns true once a flood has reached the bottom row
+	public boolean percolates() {
+		return myPercolates;
+	}
+
+	// send open, fill and percolation events to listener
+	public void setListener(IPercolateListener listener) {
+		myListener = listener;
+	}
+
+	public boolean supportsListener() {
+		return true;
+	}
+
+	// copy the grid, which already holds BLOCKED/OPEN/FULL for every cell
+	public byte[] snapshot() {
+		int n = myGrid.length;
+		byte[] states = new byte[n * n];
+		for (int row = 0; row < n; row++)
+			for (int col = 0; col < n; col++)
+				states[row * n + col] = (byte) myGrid[row][col];
+		return states;
+	}
+
+	/**
+	 * Mark all cells that are open and reachable from (row, col) as FULL, one
+	 * horizontal span at a time.
+	 */
+	private void fill(int row, int col) {
+		int n = myGrid.length;
+		push(row, col);
+		while (myStackSize > 0) {
+			myStackSize -= 2;
+			int r = myStack[myStackSize];
+			int c = myStack[myStackSize + 1];
+			int[] cells = myGrid[r];
+			if (cells[c] != OPEN)
+				continue;
+
+			// extend the span left and right, then mark it full
+			int left = c;
+			while (left > 0 && cells[left - 1] == OPEN)
+				left--;
+			int right = c;
+			while (right < n - 1 && cells[right + 1] == OPEN)
+				right++;
+			Arrays.fill(cells, left, right + 1, FULL);
+			if (myListener != null) {
+				for (int k = left; k <= right; k++)
+					myListener.siteFilled(r, k);
+				myNewlyFull += right - left + 1;
+			}
+			if (r == n - 1)
+				myPercolates = true;
+
+			if (r > 0)
+				pushSpans(myGrid[r - 1], r - 1, left, right);
+			if (r < n - 1)
+				pushSpans(myGrid[r + 1], r + 1, left, right);
+		}
+	}
+
+	// push one seed for each run of open cells in cells[left..right]
+	private void pushSpans(int[] cells, int row, int left, int right) {
+		boolean inRun = false;
+		for (int c = left; c <= right; c++) {
+			if (cells[c] == OPEN) {
+				if (!inRun)
+					push(row, c);
+				inRun = true;
+			}
+			else
+				inRun = false;
+		}
+	}
+
+	private void push(int row, int col) {
+		if (myStackSize + 2 > myStack.length)
+			myStack = Arrays.copyOf(myStack, myStack.length * 2);
+		myStack[myStackSize++] = row;
+		myStack[myStackSize++] = col;
+	}
+
+	// returns true iff (row, col) is in bounds and FULL
+	private boolean isFullNeighbor(int row, int col) {
+		if (row < 0 || row >= myGrid.length || col < 0 || col >= myGrid[0].length)
+			return false;
+		return myGrid[row][col] == FULL;
+	}
+}
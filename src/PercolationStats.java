@@ -1,9 +1,17 @@
 import java.awt.Point;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
 
 import javax.swing.JOptionPane;
 
@@ -19,9 +27,25 @@ import javax.swing.JOptionPane;
 
 public class PercolationStats {
 	public static int RANDOM_SEED = 1234;
-	public static Random ourRandom = new Random(RANDOM_SEED);
+	
+	// the generator every trial draws from, created from a seed
+	public static LongFunction<IRandom> ourGenerator = SplitMixRandom::new;
+	public static IRandom ourRandom = ourGenerator.apply(RANDOM_SEED);
+	
+	// set to keep every trial's fraction, returned by fractions(); off to use O(1) memory
+	public static boolean KEEP_FRACTIONS = false;
+	
+	// set to count the union-find operations of every trial into these counters; null for no counting
+	public static UnionFindCounters ourCounters = null;
+	
+	// trials are summarized in fixed blocks so the rounding does not depend on scheduling
+	private static final int BLOCK = 64;
+	
+	// fewest trials an adaptive run will stop after
+	private static final int MIN_TRIALS = 10;
 	
 	private int N, T;
+	private RunningStats myStats;
 	private double[] fractions;
 	
 	/** 
@@ -43,52 +67,301 @@ public class PercolationStats {
 		
 		N = N_loc;
 		T = T_loc;
-		fractions = new double[T];
+		myStats = new RunningStats();
+		fractions = KEEP_FRACTIONS ? new double[T] : null;
 		
 		// perform T experiments for an N-by-N grid
-		for (int i = 0; i < T; i++) {
-			PercolationUF perc = new PercolationUF(N);
-			//PercolationUF perc = new PercolationUF(N, new QuickFind(N)); // initialize new Percolation object
-			int myOpenedSites = 0; // initialize a variable to keep track of opened sites
-						
-			while (!perc.percolates()) {
-				int x = ourRandom.nextInt(N);
-				int y = ourRandom.nextInt(N);
-				if (!perc.isOpen(x, y)) {
-					perc.open(x, y);
+		RunningStats block = new RunningStats();
+		Trial trial = new Trial(N);
+		for (int i = 0; i < T; i++)
+			record(i, trial.run(ourRandom), block); // store percolation threshold
+	}
+	
+	/**
+	 * Gather data from T experiments on an N-by-N grid, spreading the trials
+	 * across a pool of worker threads. Each trial draws from its own random
+	 * stream derived from RANDOM_SEED and the trial index, so the results do
+	 * not depend on the number of threads or on scheduling.
+	 * 
+	 * @param N
+	 * 				size of Percolation grid
+	 * @param T
+	 * 				number of times experiment will be run
+	 * @param threads
+	 * 				number of worker threads to run trials on
+	 */
+	public PercolationStats(int N_loc, int T_loc, int threads) {
+		if (N_loc <= 0 || T_loc <= 0 || threads <= 0)
+			throw new IllegalArgumentException();
+		
+		N = N_loc;
+		T = T_loc;
+		myStats = new RunningStats();
+		fractions = KEEP_FRACTIONS ? new double[T] : null;
+		
+		/*
+		 * Workers claim blocks of trials in order and hand back each block's
+		 * fractions; blocks are recorded in trial order as soon as they are
+		 * contiguous, so only about one block per thread is ever waiting and
+		 * the summary is the same as the serial one for any number of threads.
+		 */
+		int blocks = (T + BLOCK - 1) / BLOCK;
+		AtomicInteger nextBlock = new AtomicInteger();
+		Map<Integer, double[]> finished = new HashMap<>();
+		int[] recorded = { 0 };
+		RunningStats block = new RunningStats();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.submit(() -> IntStream.range(0, threads).parallel().forEach(w -> {
+				Trial trial = new Trial(N);
+				for (int b = nextBlock.getAndIncrement(); b < blocks; b = nextBlock.getAndIncrement()) {
+					int first = b * BLOCK;
+					double[] values = new double[Math.min(T, first + BLOCK) - first];
+					for (int k = 0; k < values.length; k++)
+						values[k] = trial.run(trialRandom(first + k));
+					synchronized (finished) {
+						finished.put(b, values);
+						while ((values = finished.remove(recorded[0])) != null) {
+							for (int k = 0; k < values.length; k++)
+								record(recorded[0] * BLOCK + k, values[k], block);
+							recorded[0]++;
+						}
+					}
+				}
+			})).join();
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Gather data from T experiments on an N-by-N grid, one after another,
+	 * recording progress in the checkpoint file so that a run that is killed
+	 * can be restarted with the same arguments and continue from the exact
+	 * trial and open step where it stopped. Trials use the same random streams
+	 * as the parallel constructor, so the results match it.
+	 * 
+	 * @param N
+	 * 				size of Percolation grid
+	 * @param T
+	 * 				number of times experiment will be run
+	 * @param checkpoint
+	 * 				file to record progress in; created if it does not exist
+	 */
+	public PercolationStats(int N_loc, int T_loc, Path checkpoint) {
+		if (N_loc <= 0 || T_loc <= 0)
+			throw new IllegalArgumentException();
+		
+		N = N_loc;
+		T = T_loc;
+		double[] finished;
+		try (PercolationCheckpoint progress = new PercolationCheckpoint(checkpoint, N, T, RANDOM_SEED,
+				generatorFingerprint())) {
+			Trial trial = new Trial(N);
+			for (int i = progress.completedTrials(); i < T; i++) {
+				int[] sites = trial.sites(trialRandom(i));
+				PercolationUF perc = trial.engine();
+				
+				// replay the opens made before the last checkpoint
+				int myOpenedSites = progress.step();
+				for (int k = 0; k < myOpenedSites; k++)
+					perc.open(sites[k] / N, sites[k] % N);
+				
+				while (!perc.percolates()) {
+					perc.open(sites[myOpenedSites] / N, sites[myOpenedSites] % N);
 					myOpenedSites++;
+					progress.recordStep(myOpenedSites);
+				}
+				progress.recordTrial((double) myOpenedSites/(N*N));
+			}
+			finished = progress.fractions();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		myStats = new RunningStats();
+		fractions = KEEP_FRACTIONS ? new double[T] : null;
+		RunningStats block = new RunningStats();
+		for (int i = 0; i < T; i++)
+			record(i, finished[i], block);
+	}
+	
+	/**
+	 * Gather data from experiments on an N-by-N grid until the 95% confidence
+	 * interval is narrow enough or time runs out, whichever comes first. Trials
+	 * run in rounds of one trial per thread using the same random streams as
+	 * the parallel constructor; after each round the finished trials are
+	 * added in trial order and the run stops at the first trial count that
+	 * meets the target, so without a deadline the result is the same for any
+	 * number of threads.
+	 * 
+	 * @param N
+	 * 				size of Percolation grid
+	 * @param halfWidth
+	 * 				stop once (confidenceHigh() - confidenceLow()) / 2 is at most this; 0 for no target
+	 * @param millis
+	 * 				stop after the round that ends this many milliseconds after starting; 0 for no deadline
+	 * @param threads
+	 * 				number of worker threads to run trials on
+	 */
+	public static PercolationStats untilConfidence(int N, double halfWidth, long millis, int threads) {
+		if (N <= 0 || halfWidth < 0 || millis < 0 || threads <= 0 || (halfWidth == 0 && millis == 0))
+			throw new IllegalArgumentException();
+		
+		PercolationStats stats = new PercolationStats(N);
+		long deadline = System.currentTimeMillis() + millis;
+		double[] round = new double[threads];
+		Trial[] trials = new Trial[threads];
+		for (int k = 0; k < threads; k++)
+			trials[k] = new Trial(N);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			while (true) {
+				int first = stats.T;
+				pool.submit(() -> IntStream.range(0, threads).parallel()
+						.forEach(k -> round[k] = trials[k].run(trialRandom(first + k)))).join();
+				
+				for (int k = 0; k < threads; k++) {
+					stats.myStats.add(round[k]);
+					stats.keep(first + k, round[k]);
+					stats.T++;
+					if (halfWidth > 0 && stats.T >= MIN_TRIALS
+							&& stats.confidenceHigh() - stats.mean() <= halfWidth)
+						return stats;
 				}
+				if (millis > 0 && System.currentTimeMillis() >= deadline)
+					return stats;
 			}
-						
-			fractions[i] = (double) myOpenedSites/(N*N); // store percolation threshold in 'fractions' double array
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	// an empty summary of trials on an N-by-N grid, filled in by untilConfidence
+	private PercolationStats(int N_loc) {
+		N = N_loc;
+		T = 0;
+		myStats = new RunningStats();
+		fractions = KEEP_FRACTIONS ? new double[MIN_TRIALS] : null;
+	}
+	
+	// store the fraction of trial if KEEP_FRACTIONS is set, growing fractions as needed
+	private void keep(int trial, double fraction) {
+		if (fractions == null)
+			return;
+		if (trial >= fractions.length)
+			fractions = Arrays.copyOf(fractions, Math.max(2 * fractions.length, trial + 1));
+		fractions[trial] = fraction;
+	}
+	
+	// add the fraction of trial to block, folding block into myStats once it is complete
+	private void record(int trial, double fraction, RunningStats block) {
+		if (fractions != null)
+			fractions[trial] = fraction;
+		block.add(fraction);
+		if ((trial + 1) % BLOCK == 0 || trial + 1 == T) {
+			myStats.merge(block);
+			block.clear();
+		}
+	}
+	
+	/**
+	 * Returns the random stream for trial number trial. The stream depends
+	 * only on ourGenerator, RANDOM_SEED and the trial index. The index is
+	 * mixed into the seed so that neighboring trials get unrelated streams;
+	 * stepping the seed by the SplitMix gamma would make trial k's stream
+	 * trial 0's shifted by k draws.
+	 */
+	public static IRandom trialRandom(int trial) {
+		return ourGenerator.apply(IRandom.mix(RANDOM_SEED + trial));
+	}
+	
+	/**
+	 * Returns a value that identifies ourGenerator: the first draw of trial
+	 * 0's stream, which differs between generators
+	 */
+	public static long generatorFingerprint() {
+		return trialRandom(0).nextLong();
+	}
+	
+	/**
+	 * An engine and site order for running trials on an N-by-N grid one after
+	 * another, reset in place between trials instead of reallocated. Each
+	 * thread running trials owns one for the length of a run, so nothing is
+	 * kept once the run is over.
+	 */
+	private static class Trial {
+		private int N;
+		private PercolationUF myPerc;
+		private int[] mySites;
+		
+		Trial(int N) {
+			this.N = N;
+			mySites = new int[N * N];
+		}
+		
+		// returns an all-blocked engine, or a new instrumented one if ourCounters is set
+		PercolationUF engine() {
+			if (ourCounters != null)
+				return new PercolationUF(N, new InstrumentedUF(new QuickUWPC(), ourCounters));
+			if (myPerc == null)
+				myPerc = new PercolationUF(N);
+				//myPerc = new PercolationUF(N, new RemUnionFind()); // or QuickUnionRank, QuickUnionSplit, QuickFind
+			else
+				myPerc.reset();
+			return myPerc;
+		}
+		
+		// returns the N*N sites shuffled by random
+		int[] sites(IRandom random) {
+			TrialDriver.shuffleSites(mySites, random);
+			return mySites;
+		}
+		
+		// open sites in random order until the grid percolates; return the fraction opened
+		double run(IRandom random) {
+			int[] sites = sites(random);
+			int myOpenedSites = TrialDriver.openUntilPercolates(engine(), N, sites);
+			return (double) myOpenedSites/(N*N);
 		}
 	}
 	
 	// calculate sample mean for generated percolation thresholds
 	public double mean() {
-		double sum = 0;
-		for (double n : fractions)
-			sum += n;
-		return sum/ T;
+		return myStats.mean();
 	}
 	
 	// calculate sample standard deviation for generated percolation thresholds
 	public double stddev() {
-		double sum = 0;
-		if (T == 1) return Double.NaN;
-		for (double n : fractions)
-			sum += Math.pow(n - mean(), 2);
-		return Math.sqrt(sum/(T - 1));
+		return myStats.stddev();
 	}
 	
 	// calculate low endpoint of 95% confidence interval for generated percolation thresholds
 	public double confidenceLow() {
-		return mean() - ((1.96 * stddev()) / Math.sqrt(T));
+		return myStats.confidenceLow();
 	}
 	
 	// calculate high endpoint of 95% confidence interval for generated percolation thresholds
 	public double confidenceHigh() {
-		return mean() + ((1.96 * stddev()) / Math.sqrt(T));
+		return myStats.confidenceHigh();
+	}
+	
+	// returns the streaming summary of the generated percolation thresholds (min, max, quantiles, ...)
+	public RunningStats summary() {
+		return myStats;
+	}
+	
+	// returns the percolation threshold of every trial in trial order, or null unless KEEP_FRACTIONS was set
+	public double[] fractions() {
+		return fractions == null ? null : Arrays.copyOf(fractions, T);
+	}
+	
+	// returns the number of trials run
+	public int trials() {
+		return T;
 	}
 	
 	// print out statistics values for testing and analysis
@@ -102,6 +375,28 @@ public class PercolationStats {
 		System.out.println("Standard Dev.: " + test.stddev());
 		System.out.println("95% CI Lower Bound: " + test.confidenceLow());
 		System.out.println("95% CI Upper Bound: " + test.confidenceHigh());
+		System.out.println("Min: " + test.summary().min() + "  Median: " + test.summary().quantile(0.5)
+				+ "  Max: " + test.summary().max());
+		
+		int threads = Runtime.getRuntime().availableProcessors();
+		start = System.currentTimeMillis();
+		PercolationStats parallel = new PercolationStats(20, 10, threads);
+		end = System.currentTimeMillis();
+		
+		System.out.println("Parallel Run Time (" + threads + " threads): " + (end - start));
+		System.out.println("Parallel Mean: " + parallel.mean());
+		
+		start = System.currentTimeMillis();
+		PercolationStats adaptive = untilConfidence(20, 0.005, 10000, threads);
+		end = System.currentTimeMillis();
+		
+		System.out.println("Adaptive Run Time: " + (end - start) + "  Trials: " + adaptive.trials());
+		System.out.println("Adaptive 95% CI: [" + adaptive.confidenceLow() + ", " + adaptive.confidenceHigh() + "]");
+		
+		ourCounters = new UnionFindCounters();
+		new PercolationStats(20, 10, threads);
+		System.out.println("Union-find " + ourCounters);
+		ourCounters = null;
 	}
 	
 }
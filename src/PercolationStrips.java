@@ -0,0 +1,423 @@
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Simulate a system to see its Percolation Threshold by splitting the grid
+ * into horizontal bands that are labelled in parallel. Each band is labelled
+ * independently with its own <code>QuickUWPC</code>. The bands are then
+ * joined by a small top-level union-find over only the clusters that touch a
+ * band's first or last row, together with the virtual top and bottom.
+ * <P>
+ * Opening a site only marks the grid; the labelling is redone lazily the next
+ * time isFull() or percolates() is called after an open. This suits fixed-p
+ * workloads, where the whole grid is opened before it is queried. For a full
+ * sweep, percolationPoint() opens the sites of each band in order in parallel,
+ * keeping only the merges between clusters that touch a boundary row, and then
+ * replays those few merges in time order. Results match
+ * <code>PercolationUF</code> exactly.
+ * <P>
+ * Bands are labelled on an executor given to the constructor, or else on a
+ * pool of daemon threads shared by every PercolationStrips, never on the
+ * common fork-join pool.
+ */
+
+public class PercolationStrips implements IPercolate {
+	// one thread per processor for objects constructed without an executor
+	private static final ExecutorService ourPool = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), r -> {
+				Thread t = new Thread(r, "percolation-strips");
+				t.setDaemon(true);
+				return t;
+			});
+
+	public int[][] myGrid;
+	private ExecutorService myExecutor;
+	private int myOpenSites;
+	private int myBands;
+	private boolean myDirty;
+
+	// labelling of each band, valid while myDirty is false
+	private int[] myFirstRow;
+	private QuickUWPC[] myBandUnion;
+	private int[][] myBoundaryRoots;
+	private int[] myBoundaryOffset;
+	private QuickUWPC myBoundaryUnion;
+	private int top;
+	private int bottom;
+
+	/**
+	 * Constructs a Percolation object for a nxn grid labelled in one band per
+	 * available processor
+	 */
+	public PercolationStrips(int n) {
+		this(n, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a Percolation object for a nxn grid labelled in the given
+	 * number of bands (at most n)
+	 */
+	public PercolationStrips(int n, int bands) {
+		this(n, bands, ourPool);
+	}
+
+	/**
+	 * Constructs a Percolation object for a nxn grid labelled in the given
+	 * number of bands (at most n) on executor, which the caller shuts down
+	 */
+	public PercolationStrips(int n, int bands, ExecutorService executor) {
+		if (n <= 0 || bands <= 0) throw new IllegalArgumentException();
+		myExecutor = executor;
+		myGrid = new int[n][n];
+		myOpenSites = 0;
+		myBands = Math.min(bands, n);
+		myDirty = true;
+
+		myFirstRow = new int[myBands + 1];
+		for (int b = 0; b <= myBands; b++)
+			myFirstRow[b] = (int) ((long) b * n / myBands);
+	}
+
+	public void open(int i, int j) {
+		if (i < 0 || i >= myGrid.length || j < 0 || j >= myGrid[0].length)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + i + "," + j + " is bad!");
+
+		if (myGrid[i][j] != BLOCKED)
+			return;
+
+		myOpenSites++;
+		myGrid[i][j] = OPEN;
+		myDirty = true;
+	}
+
+	public boolean isOpen(int i, int j) {
+		if (i < 0 || i >= myGrid.length || j < 0 || j >= myGrid[0].length)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + i + "," + j + " is bad!");
+
+		return myGrid[i][j] != BLOCKED;
+	}
+
+	public boolean isFull(int i, int j) {
+		if (!isOpen(i, j))
+			return false;
+		label();
+
+		int b = band(i);
+		int root = myBandUnion[b].find((i - myFirstRow[b]) * myGrid.length + j);
+		int k = Arrays.binarySearch(myBoundaryRoots[b], root);
+		// a cluster touching neither boundary row of its band cannot reach the top
+		return k >= 0 && myBoundaryUnion.connected(top, myBoundaryOffset[b] + k);
+	}
+
+	public int numberOfOpenSites() {
+		return myOpenSites;
+	}
+
+	public boolean percolates() {
+		label();
+		return myBoundaryUnion.connected(top, bottom);
+	}
+
+	// block every site again; the bands are relabelled on the next query
+	public void reset() {
+		for (int[] row : myGrid)
+			Arrays.fill(row, BLOCKED);
+		myOpenSites = 0;
+		myDirty = true;
+	}
+
+	// resolve each boundary cluster's fullness once, then look up every open site's band cluster
+	public byte[] snapshot() {
+		label();
+		int n = myGrid.length;
+		int topRoot = myBoundaryUnion.find(top);
+		boolean[] full = new boolean[top];
+		for (int id = 0; id < top; id++)
+			full[id] = myBoundaryUnion.find(id) == topRoot;
+
+		byte[] states = new byte[n * n];
+		for (int b = 0; b < myBands; b++)
+			for (int row = myFirstRow[b]; row < myFirstRow[b + 1]; row++)
+				for (int col = 0; col < n; col++) {
+					if (myGrid[row][col] == BLOCKED)
+						continue;
+					int root = myBandUnion[b].find((row - myFirstRow[b]) * n + col);
+					int k = Arrays.binarySearch(myBoundaryRoots[b], root);
+					states[row * n + col] = (byte) (k >= 0 && full[myBoundaryOffset[b] + k] ? FULL : OPEN);
+				}
+		return states;
+	}
+
+	// returns the band containing row
+	private int band(int row) {
+		int b = (int) ((long) row * myBands / myGrid.length);
+		while (myFirstRow[b + 1] <= row)
+			b++;
+		while (myFirstRow[b] > row)
+			b--;
+		return b;
+	}
+
+	/**
+	 * Label every band in parallel and join them through their boundary rows,
+	 * unless nothing was opened since the last labelling.
+	 */
+	private void label() {
+		if (!myDirty)
+			return;
+		int n = myGrid.length;
+		myBandUnion = new QuickUWPC[myBands];
+		myBoundaryRoots = new int[myBands][];
+		inParallel(myBands, this::labelBand, myExecutor);
+
+		// one top-level element per distinct boundary cluster of each band
+		myBoundaryOffset = new int[myBands];
+		int elements = 0;
+		for (int b = 0; b < myBands; b++) {
+			myBoundaryOffset[b] = elements;
+			elements += myBoundaryRoots[b].length;
+		}
+		top = elements;
+		bottom = elements + 1;
+		myBoundaryUnion = new QuickUWPC(elements + 2);
+
+		for (int col = 0; col < n; col++) {
+			if (myGrid[0][col] != BLOCKED)
+				myBoundaryUnion.union(top, boundaryId(0, 0, col));
+			if (myGrid[n - 1][col] != BLOCKED)
+				myBoundaryUnion.union(bottom, boundaryId(myBands - 1, n - 1, col));
+		}
+		for (int b = 0; b + 1 < myBands; b++) {
+			int last = myFirstRow[b + 1] - 1;
+			for (int col = 0; col < n; col++)
+				if (myGrid[last][col] != BLOCKED && myGrid[last + 1][col] != BLOCKED)
+					myBoundaryUnion.union(boundaryId(b, last, col), boundaryId(b + 1, last + 1, col));
+		}
+		myDirty = false;
+	}
+
+	// top-level element of the cluster containing open boundary site (row, col) of band b
+	private int boundaryId(int b, int row, int col) {
+		int root = myBandUnion[b].find((row - myFirstRow[b]) * myGrid.length + col);
+		return myBoundaryOffset[b] + Arrays.binarySearch(myBoundaryRoots[b], root);
+	}
+
+	// label band b on its own union-find and record the distinct roots on its boundary rows
+	private void labelBand(int b) {
+		int n = myGrid.length;
+		int first = myFirstRow[b];
+		int last = myFirstRow[b + 1] - 1;
+		QuickUWPC uf = new QuickUWPC((last - first + 1) * n);
+		for (int row = first; row <= last; row++)
+			for (int col = 0; col < n; col++) {
+				if (myGrid[row][col] == BLOCKED)
+					continue;
+				int index = (row - first) * n + col;
+				if (col + 1 < n && myGrid[row][col + 1] != BLOCKED)
+					uf.union(index, index + 1);
+				if (row < last && myGrid[row + 1][col] != BLOCKED)
+					uf.union(index, index + n);
+			}
+
+		int[] roots = new int[2 * n];
+		int count = 0;
+		for (int col = 0; col < n; col++) {
+			if (myGrid[first][col] != BLOCKED)
+				roots[count++] = uf.find(col);
+			if (myGrid[last][col] != BLOCKED)
+				roots[count++] = uf.find((last - first) * n + col);
+		}
+		myBandUnion[b] = uf;
+		myBoundaryRoots[b] = Arrays.stream(roots, 0, count).sorted().distinct().toArray();
+	}
+
+	// run task(0) through task(count - 1) on executor and wait for all of them
+	private static void inParallel(int count, IntConsumer task, ExecutorService executor) {
+		CompletableFuture.allOf(IntStream.range(0, count)
+				.mapToObj(b -> CompletableFuture.runAsync(() -> task.accept(b), executor))
+				.toArray(CompletableFuture[]::new)).join();
+	}
+
+	/**
+	 * Returns the number of sites that must be opened, in order, for an
+	 * n-by-n grid to percolate, labelling bands on the shared pool. Returns
+	 * sites.length if the grid never percolates.
+	 *
+	 * @param n
+	 *            size of the (square) grid
+	 * @param sites
+	 *            distinct row-major site indices in the order to open them
+	 * @param bands
+	 *            number of bands to label in parallel
+	 */
+	public static int percolationPoint(int n, int[] sites, int bands) {
+		return percolationPoint(n, sites, bands, ourPool);
+	}
+
+	/**
+	 * Returns the number of sites that must be opened, in order, for an
+	 * n-by-n grid to percolate, labelling bands on executor. Returns
+	 * sites.length if the grid never percolates.
+	 * <P>
+	 * Each band opens its own sites in order on its own union-find and
+	 * records a merge only when it joins two clusters that both touch a
+	 * boundary row of the band, so two boundary sites are connected within
+	 * the band after k opens exactly when the merges before time k connect
+	 * them. At most 2n merges are kept per band. Those merges, the links
+	 * across band edges and the links to the virtual top and bottom are then
+	 * replayed in time order until the top meets the bottom, so every site is
+	 * opened once instead of once per bisection step.
+	 */
+	public static int percolationPoint(int n, int[] sites, int bands, ExecutorService executor) {
+		if (n <= 0 || bands <= 0) throw new IllegalArgumentException();
+		int count = sites.length;
+		bands = Math.min(bands, n);
+		int[] firstRow = new int[bands + 1];
+		for (int b = 0; b <= bands; b++)
+			firstRow[b] = (int) ((long) b * n / bands);
+
+		// when each site opens, count for sites that never do
+		int[] time = new int[n * n];
+		Arrays.fill(time, count);
+		for (int k = 0; k < count; k++)
+			time[sites[k]] = k;
+
+		// each band's sites in opening order
+		int[] bandOf = new int[n];
+		for (int b = 0; b < bands; b++)
+			Arrays.fill(bandOf, firstRow[b], firstRow[b + 1], b);
+		int[] start = new int[bands + 1];
+		for (int site : sites)
+			start[bandOf[site / n] + 1]++;
+		for (int b = 0; b < bands; b++)
+			start[b + 1] += start[b];
+		int[] order = new int[count];
+		int[] next = Arrays.copyOf(start, bands);
+		for (int site : sites)
+			order[next[bandOf[site / n]]++] = site;
+
+		int[][] merges = new int[bands][];
+		inParallel(bands, b -> merges[b] = boundaryMerges(n, firstRow[b], firstRow[b + 1] - 1, order, start[b],
+				start[b + 1], time), executor);
+
+		// one element per site on a boundary row, then the virtual top and bottom
+		int[] slot = new int[n];
+		Arrays.fill(slot, -1);
+		int slots = 0;
+		for (int b = 0; b < bands; b++) {
+			if (slot[firstRow[b]] < 0)
+				slot[firstRow[b]] = slots++;
+			if (slot[firstRow[b + 1] - 1] < 0)
+				slot[firstRow[b + 1] - 1] = slots++;
+		}
+		int top = slots * n;
+		int bottom = top + 1;
+
+		// every link as (time, element, element)
+		int links = 0;
+		for (int[] m : merges)
+			links += m.length / 3;
+		int[] link = new int[3 * (links + 2 * n * bands)];
+		links = 0;
+		for (int[] m : merges)
+			for (int e = 0; e < m.length; e += 3) {
+				link[3 * links] = m[e];
+				link[3 * links + 1] = slot[m[e + 1] / n] * n + m[e + 1] % n;
+				link[3 * links + 2] = slot[m[e + 2] / n] * n + m[e + 2] % n;
+				links++;
+			}
+		for (int col = 0; col < n; col++) {
+			link[3 * links] = time[col];
+			link[3 * links + 1] = top;
+			link[3 * links + 2] = slot[0] * n + col;
+			links++;
+			link[3 * links] = time[(n - 1) * n + col];
+			link[3 * links + 1] = bottom;
+			link[3 * links + 2] = slot[n - 1] * n + col;
+			links++;
+		}
+		for (int b = 0; b + 1 < bands; b++) {
+			int last = firstRow[b + 1] - 1;
+			for (int col = 0; col < n; col++) {
+				link[3 * links] = Math.max(time[last * n + col], time[(last + 1) * n + col]);
+				link[3 * links + 1] = slot[last] * n + col;
+				link[3 * links + 2] = slot[last + 1] * n + col;
+				links++;
+			}
+		}
+
+		// replay the links that happen at all in time order
+		long[] byTime = new long[links];
+		int live = 0;
+		for (int e = 0; e < links; e++)
+			if (link[3 * e] < count)
+				byTime[live++] = (long) link[3 * e] << 32 | e;
+		Arrays.sort(byTime, 0, live);
+		QuickUWPC uf = new QuickUWPC(slots * n + 2);
+		for (int k = 0; k < live; k++) {
+			int e = (int) byTime[k];
+			uf.union(link[3 * e + 1], link[3 * e + 2]);
+			if (uf.connected(top, bottom))
+				return link[3 * e] + 1;
+		}
+		return count;
+	}
+
+	/**
+	 * Open sites order[from] through order[to - 1], all in rows first through
+	 * last, in order on a union-find of that band alone. Returns, as (time,
+	 * site, site) triples, each merge of two clusters that both contain a
+	 * site on row first or row last, naming one such site of each.
+	 */
+	private static int[] boundaryMerges(int n, int first, int last, int[] order, int from, int to, int[] time) {
+		QuickUWPC uf = new QuickUWPC((last - first + 1) * n);
+		// a boundary site of the cluster rooted here, or -1
+		int[] boundary = new int[(last - first + 1) * n];
+		Arrays.fill(boundary, -1);
+		int[] merges = new int[3 * 2 * n];
+		int count = 0;
+		for (int k = from; k < to; k++) {
+			int site = order[k];
+			int row = site / n;
+			int col = site % n;
+			int index = (row - first) * n + col;
+			if (row == first || row == last)
+				boundary[index] = site;
+			int now = time[site];
+			if (row > first && time[site - n] < now)
+				count = merge(uf, boundary, index, index - n, now, merges, count);
+			if (row < last && time[site + n] < now)
+				count = merge(uf, boundary, index, index + n, now, merges, count);
+			if (col > 0 && time[site - 1] < now)
+				count = merge(uf, boundary, index, index - 1, now, merges, count);
+			if (col < n - 1 && time[site + 1] < now)
+				count = merge(uf, boundary, index, index + 1, now, merges, count);
+		}
+		return Arrays.copyOf(merges, 3 * count);
+	}
+
+	// union p and q, recording the merge at time now if both clusters touch a boundary row; returns the merge count
+	private static int merge(QuickUWPC uf, int[] boundary, int p, int q, int now, int[] merges, int count) {
+		int rootP = uf.find(p);
+		int rootQ = uf.find(q);
+		if (rootP == rootQ)
+			return count;
+		int siteP = boundary[rootP];
+		int siteQ = boundary[rootQ];
+		uf.union(rootP, rootQ);
+		if (siteP >= 0 && siteQ >= 0) {
+			merges[3 * count] = now;
+			merges[3 * count + 1] = siteP;
+			merges[3 * count + 2] = siteQ;
+			count++;
+		}
+		boundary[uf.find(p)] = siteP >= 0 ? siteP : siteQ;
+		return count;
+	}
+}
@@ -1,3 +1,4 @@
+import java.util.Arrays;
 
 /**
  * Simulate a system to see its Percolation Threshold, but use a UnionFind
@@ -25,6 +26,13 @@ public class PercolationUF implements IPercolate {
 	private int top;
 	private int bottom;
 	
+	// cells already reported full, and a work stack for finding newly full ones; only used with a listener
+	private IPercolateListener myListener;
+	private boolean[] myFilled;
+	private int[] myStack;
+	private int myNewlyFull;
+	private boolean myReportedPercolation;
+	
 
 	/**
 	 * Constructs a Percolation object for a nxn grid that that creates
@@ -38,6 +46,21 @@ public class PercolationUF implements IPercolate {
 		bottom = n * n + 1;
 		myUnion = new QuickUWPC(n * n + 2);
 	}
+	
+	/**
+	 * Constructs a Percolation object for a nxn grid that uses uf, which is
+	 * initialized here with n * n + 2 elements, to determine whether cells are
+	 * full
+	 */
+	public PercolationUF(int n, IUnionFind uf) {
+		if (n <= 0) throw new IllegalArgumentException();
+		myOpenSites = 0;
+		myGrid = new int[n][n];
+		top = n * n;
+		bottom = n * n + 1;
+		myUnion = uf;
+		myUnion.initialize(n * n + 2);
+	}
 
 	/**
 	 * Return an index that uniquely identifies (row,col), typically an index
@@ -66,6 +89,8 @@ public class PercolationUF implements IPercolate {
 		myGrid[i][j] = OPEN;
 		
 		connect(i, j);
+		if (myListener != null)
+			report(i, j);
 	}
 
 	public boolean isOpen(int i, int j) {
@@ -96,6 +121,115 @@ public class PercolationUF implements IPercolate {
 		return myUnion.connected(top, bottom);
 	}
 
+	/**
+	 * Resolve the top's root once, then an open site is FULL iff it has the
+	 * same root. Roots are found with root(), which walks the tree without
+	 * compressing it, so a snapshot only reads the union-find.
+	 */
+	public byte[] snapshot() {
+		int n = myGrid.length;
+		int topRoot = myUnion.root(top);
+		byte[] states = new byte[n * n];
+		for (int row = 0; row < n; row++)
+			for (int col = 0; col < n; col++) {
+				int index = row * n + col;
+				if (myGrid[row][col] == BLOCKED)
+					states[index] = BLOCKED;
+				else
+					states[index] = (byte) (myUnion.root(index) == topRoot ? FULL : OPEN);
+			}
+		return states;
+	}
+
+	// block every site and reinitialize the union-find in place
+	public void reset() {
+		for (int[] row : myGrid)
+			Arrays.fill(row, BLOCKED);
+		myOpenSites = 0;
+		myUnion.initialize(top + 2);
+		if (myListener != null) {
+			Arrays.fill(myFilled, false);
+			myReportedPercolation = false;
+		}
+	}
+
+	/**
+	 * Send open, fill and percolation events to listener. Cells that are
+	 * already full when the listener is set are not reported.
+	 */
+	public void setListener(IPercolateListener listener) {
+		myListener = listener;
+		if (listener == null) {
+			myFilled = null;
+			myStack = null;
+			return;
+		}
+		byte[] states = snapshot();
+		myFilled = new boolean[states.length];
+		for (int index = 0; index < states.length; index++)
+			myFilled[index] = states[index] == FULL;
+		myStack = new int[64];
+		myReportedPercolation = percolates();
+	}
+	
+	public boolean supportsListener() {
+		return true;
+	}
+	
+	/**
+	 * Report newly opened site (row, col) and every cell that became full
+	 * because of it. Those cells are reached from the new site through open
+	 * cells not yet reported full; when the system first percolates, clusters
+	 * touching the bottom row become full through the virtual bottom and are
+	 * reached from there.
+	 */
+	private void report(int row, int col) {
+		myListener.siteOpened(row, col);
+		if (!isFull(row, col))
+			return;
+		myNewlyFull = 0;
+		fill(getIndex(row, col));
+		boolean percolated = false;
+		if (!myReportedPercolation && percolates()) {
+			myReportedPercolation = percolated = true;
+			int last = myGrid.length - 1;
+			for (int c = 0; c < myGrid.length; c++)
+				if (myGrid[last][c] != BLOCKED)
+					fill(getIndex(last, c));
+		}
+		myListener.regionFilled(row, col, myNewlyFull);
+		if (percolated)
+			myListener.percolated();
+	}
+	
+	// report start and all open, unreported cells connected to it through such cells as full
+	private void fill(int start) {
+		int n = myGrid.length;
+		if (myFilled[start])
+			return;
+		int size = 0;
+		myFilled[start] = true;
+		myStack[size++] = start;
+		while (size > 0) {
+			int index = myStack[--size];
+			int row = index / n, col = index % n;
+			myListener.siteFilled(row, col);
+			myNewlyFull++;
+			
+			for (int k = 0; k < 4; k++) {
+				int r = row + (k == 0 ? -1 : k == 1 ? 1 : 0);
+				int c = col + (k == 2 ? -1 : k == 3 ? 1 : 0);
+				int next = getIndex(r, c);
+				if (next == OUT_BOUNDS || myGrid[r][c] == BLOCKED || myFilled[next])
+					continue;
+				myFilled[next] = true;
+				if (size == myStack.length)
+					myStack = Arrays.copyOf(myStack, 2 * size);
+				myStack[size++] = next;
+			}
+		}
+	}
+	
 	/**
 	 * Connect new site (row, col) to all adjacent open sites
 	 */
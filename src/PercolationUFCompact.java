@@ -0,0 +1,115 @@
+
+/**
+ * Simulate a system to see its Percolation Threshold using a
+ * <code>CompactUF</code> as the only per-site storage. Unlike
+ * <code>PercolationUF</code> there is no separate grid: a site is blocked
+ * exactly when its union-find entry is <code>CompactUF.BLOCKED</code>, so the
+ * whole system takes about 4 bytes per site.
+ * <P>
+ * That is 4 * (N*N + 2) bytes in one array: 1.6 GB at N = 20,000 and 3.6 GB
+ * at N = 30,000. A trial also needs its opening order, and the shuffled
+ * array of <code>TrialDriver.shuffledSites</code> is another 4 bytes per
+ * site, so run large grids with
+ * <code>TrialDriver.openRandomUntilPercolates</code>, which stores nothing
+ * per site. Even then, with the default collector a 4 GB heap (-Xmx4g)
+ * holds N up to about 26,500 (a 2.8 GB array); N = 30,000 does not fit
+ * and needs a larger heap. Java arrays also cap N*N + 2 at about 2^31, so
+ * N stays below 46,340; beyond that use <code>PercolationOffHeap</code>.
+ */
+
+public class PercolationUFCompact implements IPercolate {
+	private int mySize;
+	private int myOpenSites;
+	private CompactUF myUnion;
+
+	private int top;
+	private int bottom;
+
+	/**
+	 * Constructs a Percolation object for a nxn grid with all sites blocked
+	 */
+	public PercolationUFCompact(int n) {
+		if (n <= 0) throw new IllegalArgumentException();
+		mySize = n;
+		myOpenSites = 0;
+		top = n * n;
+		bottom = n * n + 1;
+		myUnion = new CompactUF();
+		myUnion.initializeBlocked(n * n + 2);
+		myUnion.open(top);
+		myUnion.open(bottom);
+	}
+
+	/**
+	 * Return the row-major index of (row,col), throwing an exception if it is
+	 * out-of-bounds.
+	 */
+	private int getIndex(int row, int col) {
+		if (row < 0 || row >= mySize || col < 0 || col >= mySize)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + row + "," + col + " is bad!");
+		return row * mySize + col;
+	}
+
+	public void open(int i, int j) {
+		int index = getIndex(i, j);
+		if (myUnion.isOpen(index))
+			return;
+
+		myOpenSites++;
+		myUnion.open(index);
+
+		connect(i, j, index);
+	}
+
+	public boolean isOpen(int i, int j) {
+		return myUnion.isOpen(getIndex(i, j));
+	}
+
+	public boolean isFull(int i, int j) {
+		return myUnion.connected(top, getIndex(i, j));
+	}
+
+	public int numberOfOpenSites() {
+		return myOpenSites;
+	}
+
+	public boolean percolates() {
+		return myUnion.connected(top, bottom);
+	}
+
+	// block every site again, reusing the union-find's array
+	public void reset() {
+		myUnion.initializeBlocked(mySize * mySize + 2);
+		myUnion.open(top);
+		myUnion.open(bottom);
+		myOpenSites = 0;
+	}
+
+	// resolve the top's root once, then an open site is FULL iff it has the same root; nothing is compressed
+	public byte[] snapshot() {
+		int topRoot = myUnion.root(top);
+		byte[] states = new byte[mySize * mySize];
+		for (int index = 0; index < states.length; index++) {
+			if (!myUnion.isOpen(index))
+				states[index] = BLOCKED;
+			else
+				states[index] = (byte) (myUnion.root(index) == topRoot ? FULL : OPEN);
+		}
+		return states;
+	}
+
+	/**
+	 * Connect new site (row, col) with row-major index index to the virtual
+	 * top/bottom and all adjacent open sites
+	 */
+	private void connect(int row, int col, int index) {
+		if (row == 0) myUnion.union(index, top);
+		if (row == mySize - 1) myUnion.union(index, bottom);
+
+		if (row > 0 && myUnion.isOpen(index - mySize)) myUnion.union(index, index - mySize);
+		if (row < mySize - 1 && myUnion.isOpen(index + mySize)) myUnion.union(index, index + mySize);
+		if (col > 0 && myUnion.isOpen(index - 1)) myUnion.union(index, index - 1);
+		if (col < mySize - 1 && myUnion.isOpen(index + 1)) myUnion.union(index, index + 1);
+	}
+}
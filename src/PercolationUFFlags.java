@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+/**
+ * Simulate a system to see its Percolation Threshold with a union-find
+ * structure over the sites alone, without the virtual top and bottom of
+ * <code>PercolationUF</code>. Instead, each site has one byte of flags: whether
+ * it is open, and, for the root of each component, whether the component
+ * touches the top row and whether it touches the bottom row. Opening a site
+ * merges the flags of its neighbors' components into the new root.
+ * <P>
+ * Because no bottom node joins the clusters on the bottom row, a site is full
+ * only if its own component touches the top, so there is no backwash, and no
+ * second union-find is needed to avoid it. isFull() is a single find and
+ * percolates() reads a flag.
+ */
+
+public class PercolationUFFlags implements IPercolate {
+	// flag bits of mySite; TOP and BOTTOM are only meaningful at roots
+	protected static final byte OPEN_BIT = 1;
+	protected static final byte TOP_BIT = 2;
+	protected static final byte BOTTOM_BIT = 4;
+
+	protected int mySize;
+	protected byte[] mySite;
+	protected IUnionFind myUnion;
+	private int myOpenSites;
+	private boolean myPercolates;
+
+	/**
+	 * Constructs a Percolation object for a nxn grid that uses a
+	 * <code>QuickUWPC</code> to determine whether cells are full
+	 */
+	public PercolationUFFlags(int n) {
+		this(n, new QuickUWPC());
+	}
+
+	/**
+	 * Constructs a Percolation object for a nxn grid that uses uf, which is
+	 * initialized here with n * n elements, to determine whether cells are full
+	 */
+	public PercolationUFFlags(int n, IUnionFind uf) {
+		if (n <= 0) throw new IllegalArgumentException();
+		mySize = n;
+		mySite = new byte[n * n];
+		myUnion = uf;
+		myUnion.initialize(n * n);
+		myOpenSites = 0;
+		myPercolates = false;
+	}
+
+	// returns the row-major index of (i, j), throwing if it is out of bounds
+	protected int getIndex(int i, int j) {
+		if (i < 0 || i >= mySize || j < 0 || j >= mySize)
+			// out of bounds
+			throw new IndexOutOfBoundsException("Index " + i + "," + j + " is bad!");
+		return i * mySize + j;
+	}
+
+	public void open(int i, int j) {
+		int index = getIndex(i, j);
+		if (mySite[index] != BLOCKED)
+			return;
+
+		myOpenSites++;
+		byte flags = OPEN_BIT;
+		if (i == 0) flags |= TOP_BIT;
+		if (i == mySize - 1) flags |= BOTTOM_BIT;
+		mySite[index] = flags;
+
+		// gather the flags of every neighboring component before the unions move their roots
+		if (i > 0) flags |= join(index, index - mySize);
+		if (i < mySize - 1) flags |= join(index, index + mySize);
+		if (j > 0) flags |= join(index, index - 1);
+		if (j < mySize - 1) flags |= join(index, index + 1);
+
+		mySite[myUnion.find(index)] |= flags;
+		if ((flags & (TOP_BIT | BOTTOM_BIT)) == (TOP_BIT | BOTTOM_BIT))
+			myPercolates = true;
+	}
+
+	// union new site index with neighbor if it is open; return the flags of the neighbor's component
+	private byte join(int index, int neighbor) {
+		if (mySite[neighbor] == BLOCKED)
+			return 0;
+		byte flags = mySite[myUnion.find(neighbor)];
+		myUnion.union(index, neighbor);
+		return flags;
+	}
+
+	public boolean isOpen(int i, int j) {
+		return mySite[getIndex(i, j)] != BLOCKED;
+	}
+
+	public boolean isFull(int i, int j) {
+		int index = getIndex(i, j);
+		return mySite[index] != BLOCKED && (mySite[myUnion.find(index)] & TOP_BIT) != 0;
+	}
+
+	public int numberOfOpenSites() {
+		return myOpenSites;
+	}
+
+	public boolean percolates() {
+		return myPercolates;
+	}
+
+	// block every site and reinitialize the union-find in place
+	public void reset() {
+		Arrays.fill(mySite, (byte) BLOCKED);
+		myUnion.initialize(mySite.length);
+		myOpenSites = 0;
+		myPercolates = false;
+	}
+
+	// an open site is FULL iff its root, found without compressing, carries the top flag
+	public byte[] snapshot() {
+		byte[] states = new byte[mySite.length];
+		for (int index = 0; index < mySite.length; index++) {
+			if (mySite[index] == BLOCKED)
+				continue;
+			states[index] = (byte) ((mySite[myUnion.root(index)] & TOP_BIT) != 0 ? FULL : OPEN);
+		}
+		return states;
+	}
+}
@@ -1,11 +1,7 @@
 import java.awt.Color;
-import java.util.Random;
 
 import javax.swing.JOptionPane;
 
-import java.awt.Point;
-import java.util.*;
-
 /**
  * Animates the results of opening sites in a percolation system
  * 
@@ -16,7 +12,7 @@ import java.util.*;
 
 public class PercolationVisualizer {
 	public static int RANDOM_SEED = 1234;
-	public static Random ourRandom = new Random(RANDOM_SEED);
+	public static IRandom ourRandom = new SplitMixRandom(RANDOM_SEED);
 	public static final int msInSec = 1000;
 	public static final int HZ = 20;
 	public static final int DEFAULT_DELAY = msInSec / HZ; // in milliseconds
@@ -24,6 +20,7 @@ public class PercolationVisualizer {
 	
 	private int mySize;
 	private IPercolate myPerc;
+	private PercolationPainter myPainter;
 	
 	/**
 	 * Initializes mySize, myPerc, and the initial grid display
@@ -36,6 +33,15 @@ public class PercolationVisualizer {
 		mySize = n;
 		myPerc = perc;
 		initDisplay(n);
+		
+		// paint only the cells the percolator reports as changed, if it can
+		myPainter = new PercolationPainter(perc) {
+			protected void paint(int i, int j, int state) {
+				draw(i, j, state == IPercolate.FULL ? Color.CYAN : Color.WHITE);
+			}
+		};
+		if (myPainter.isIncremental())
+			drawGrid();
 	}
 
 	/**
@@ -55,37 +61,33 @@ public class PercolationVisualizer {
 	
 	// ask the percolator what sites are open, blocked, or full and draw accordingly
 	private void drawGrid() {
+		byte[] states = myPerc.snapshot();
 		for (int row = 0; row < mySize; row++)
 			for (int col = 0; col < mySize; col++) {
-				if (myPerc.isFull(row,  col))
+				if (states[row * mySize + col] == IPercolate.FULL)
 					draw (row, col, Color.CYAN);
-				else if (myPerc.isOpen(row, col))
+				else if (states[row * mySize + col] == IPercolate.OPEN)
 					draw (row, col, Color.WHITE);
 			}
 	}
 	
-	// generate a random list of shuffled cell positions within the grid
-	public List<Point> getShuffledCells() {
-		ArrayList<Point> list = new ArrayList<Point>();
-		for (int i = 0; i < mySize; i++)
-			for (int j = 0; j < mySize; j++)
-				list.add(new Point(i, j));
-		Collections.shuffle(list, ourRandom);
-		return list;
-		
+	// generate shuffled row-major cell indices within the grid; index k is (k / mySize, k % mySize)
+	public int[] getShuffledCells() {
+		return TrialDriver.shuffledSites(mySize, ourRandom);
 	}
 	
 	// run the random generation to check for percolation probability 
 	public void run() {
 		// get random list of sites
-		List<Point> sites = getShuffledCells();
+		int[] sites = getShuffledCells();
 		// draw percolation system
-		for (Point cell: sites) {
+		for (int cell : sites) {
 			// repeatedly declare sites open, draw, & pause until the system percolates
-			myPerc.open(cell.x, cell.y);
-			drawGrid();
+			myPerc.open(cell / mySize, cell % mySize);
+			if (!myPainter.isIncremental())
+				drawGrid();
 			StdDraw.show(DEFAULT_DELAY);
-			if (myPerc.percolates())
+			if (myPainter.percolates())
 				break;
 		}
 		// draw percolation system
@@ -32,10 +32,11 @@ public class QuickFind implements IUnionFind {
 		initialize(N);
 	}
 
-	// instantiate N isolated components 0 through N-1
+	// instantiate N isolated components 0 through N-1, reusing the array if N is unchanged
 	public void initialize(int n) {
 		myComponents = n;
-		myID = new int[n];
+		if (myID == null || myID.length != n)
+			myID = new int[n];
 		for (int i = 0; i < n; i++) {
 			myID[i] = i;
 		}
@@ -51,6 +52,11 @@ public class QuickFind implements IUnionFind {
 		return myID[x];
 	}
 
+	// every element points directly at its component id
+	public int depth(int x) {
+		return myID[x] == x ? 0 : 1;
+	}
+
 	// returns true if elements p and q are in the same component
 	public boolean connected(int p, int q) {
 		return myID[p] == myID[q];
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 /**
  * Represents a union-find data structure a using weighted quick union
  * with path compression structure.
@@ -7,7 +9,7 @@
 public class QuickUWPC implements IUnionFind {
 	private int myComponents;	
 	private int[] parentID;
-	private int[] size;
+	protected int[] size;
 
 	/**
 	 * Default constructor
@@ -25,15 +27,16 @@ public class QuickUWPC implements IUnionFind {
 		initialize(N);
 	}
 	
-	// instantiate N isolated components 0 through N-1
+	// instantiate N isolated components 0 through N-1, reusing the arrays if N is unchanged
 	public void initialize(int n) {
 		myComponents = n;
-		parentID = new int[n];
-        size = new int[n];
-        for (int i = 0; i < n; i++) {
+		if (parentID == null || parentID.length != n) {
+			parentID = new int[n];
+			size = new int[n];
+		}
+        for (int i = 0; i < n; i++)
             parentID[i] = i;
-            size[i] = 1;
-        }
+        Arrays.fill(size, 1);
 	}
 	
 	// return number of connected components
@@ -60,6 +63,30 @@ public class QuickUWPC implements IUnionFind {
         }
     }
 	
+	// returns the number of links from x to its root, without compressing
+	public int depth(int x) {
+		validate(x);
+		int d = 0;
+		while (x != parentID[x]) {
+			x = parentID[x];
+			d++;
+		}
+		return d;
+	}
+	
+	// returns the root of x without compressing the path
+	public int root(int x) {
+		validate(x);
+		while (x != parentID[x])
+			x = parentID[x];
+		return x;
+	}
+	
+	// returns the number of elements in the component containing x
+	public int size(int x) {
+		return size[find(x)];
+	}
+	
 	// returns true if elements p and q are in the same component
 	public boolean connected(int p, int q) {
 		return find(p) == find(q);
@@ -75,11 +102,21 @@ public class QuickUWPC implements IUnionFind {
         if (size[rootP] < size[rootQ]) {
             parentID[rootP] = rootQ;
             size[rootQ] += size[rootP];
+            merged(rootQ, rootP);
         }
         else {
             parentID[rootQ] = rootP;
             size[rootP] += size[rootQ];
+            merged(rootP, rootQ);
         }
         myComponents--;
     }
+	
+	/**
+	 * Called by union after child's component has been linked under root and
+	 * size[root] updated; size[child] still holds the child's old size.
+	 * Subclasses override this to keep their own per-component data.
+	 */
+	protected void merged(int root, int child) {
+	}
 }
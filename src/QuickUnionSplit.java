@@ -0,0 +1,102 @@
+import java.util.Arrays;
+
+/**
+ * Represents a union-find data structure using quick union by rank with path
+ * splitting: the root of lower rank is linked under the root of higher rank,
+ * and find makes every node on its path point to its grandparent. Unlike path
+ * halving, splitting shortens the whole path in one pass, at the cost of one
+ * more write per node. Ranks never exceed log2(N), so they are stored in a
+ * <code>byte[]</code>.
+ * <p>
+ * See R. E. Tarjan and J. van Leeuwen, "Worst-case analysis of set union
+ * algorithms", Journal of the ACM 31, 2 (1984).
+ */
+
+public class QuickUnionSplit implements IUnionFind {
+	private int myComponents;
+	private int[] myParent;
+	private byte[] myRank;
+
+	/**
+	 * Default constructor
+	 */
+	public QuickUnionSplit() {
+		myComponents = 0;
+		myParent = null;
+		myRank = null;
+	}
+
+	/**
+	 * Constructor that creates N isolated components
+	 */
+	public QuickUnionSplit(int N) {
+		initialize(N);
+	}
+
+	// instantiate N isolated components 0 through N-1, reusing the arrays if N is unchanged
+	public void initialize(int n) {
+		myComponents = n;
+		if (myParent == null || myParent.length != n) {
+			myParent = new int[n];
+			myRank = new byte[n];
+		}
+		for (int i = 0; i < n; i++)
+			myParent[i] = i;
+		Arrays.fill(myRank, (byte) 0);
+	}
+
+	// return number of connected components
+	public int components() {
+		return myComponents;
+	}
+
+	// returns the root of x, pointing every node on the path at its grandparent
+	public int find(int x) {
+		int parent = myParent[x];
+		while (x != parent) {
+			myParent[x] = myParent[parent];
+			x = parent;
+			parent = myParent[x];
+		}
+		return x;
+	}
+
+	// returns the number of links from x to its root, without compressing
+	public int depth(int x) {
+		int d = 0;
+		while (x != myParent[x]) {
+			x = myParent[x];
+			d++;
+		}
+		return d;
+	}
+
+	// returns the root of x without compressing the path
+	public int root(int x) {
+		while (x != myParent[x])
+			x = myParent[x];
+		return x;
+	}
+
+	// returns true if elements p and q are in the same component
+	public boolean connected(int p, int q) {
+		return find(p) == find(q);
+	}
+
+	// merge components containing p and q, linking the root of lower rank under the other
+	public void union(int p, int q) {
+		int rootP = find(p);
+		int rootQ = find(q);
+		if (rootP == rootQ) return;
+
+		if (myRank[rootP] < myRank[rootQ])
+			myParent[rootP] = rootQ;
+		else if (myRank[rootP] > myRank[rootQ])
+			myParent[rootQ] = rootP;
+		else {
+			myParent[rootQ] = rootP;
+			myRank[rootP]++;
+		}
+		myComponents--;
+	}
+}
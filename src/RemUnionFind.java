@@ -0,0 +1,104 @@
+/**
+ * Represents a union-find data structure using Rem's algorithm with splicing.
+ * Parents always have higher indices than their children, so links need no
+ * rank or size array. union walks up from p and q together, always advancing
+ * the side whose parent is lower. Each node it leaves is spliced onto the
+ * other side's higher parent, compressing both paths on the way. The walk
+ * stops early when the two sides meet, so a union of elements that are
+ * already connected usually costs only a few steps.
+ * <p>
+ * See M. M. A. Patwary, J. Blair and F. Manne, "Experiments on Union-Find
+ * Algorithms for the Disjoint-Set Data Structure", SEA 2010, LNCS 6049.
+ */
+
+public class RemUnionFind implements IUnionFind {
+	private int myComponents;
+	private int[] myParent;
+
+	/**
+	 * Default constructor
+	 */
+	public RemUnionFind() {
+		myComponents = 0;
+		myParent = null;
+	}
+
+	/**
+	 * Constructor that creates N isolated components
+	 */
+	public RemUnionFind(int N) {
+		initialize(N);
+	}
+
+	// instantiate N isolated components 0 through N-1, reusing the array if N is unchanged
+	public void initialize(int n) {
+		myComponents = n;
+		if (myParent == null || myParent.length != n)
+			myParent = new int[n];
+		for (int i = 0; i < n; i++)
+			myParent[i] = i;
+	}
+
+	// return number of connected components
+	public int components() {
+		return myComponents;
+	}
+
+	// returns the root of x, pointing every other node on the path at its grandparent
+	public int find(int x) {
+		while (x != myParent[x]) {
+			myParent[x] = myParent[myParent[x]];
+			x = myParent[x];
+		}
+		return x;
+	}
+
+	// returns the number of links from x to its root, without compressing
+	public int depth(int x) {
+		int d = 0;
+		while (x != myParent[x]) {
+			x = myParent[x];
+			d++;
+		}
+		return d;
+	}
+
+	// returns the root of x without compressing the path
+	public int root(int x) {
+		while (x != myParent[x])
+			x = myParent[x];
+		return x;
+	}
+
+	// returns true if elements p and q are in the same component
+	public boolean connected(int p, int q) {
+		return find(p) == find(q);
+	}
+
+	// merge components containing p and q, splicing both paths on the way up
+	public void union(int p, int q) {
+		int x = p, y = q;
+		while (myParent[x] != myParent[y]) {
+			if (myParent[x] < myParent[y]) {
+				if (x == myParent[x]) {
+					myParent[x] = myParent[y];
+					myComponents--;
+					return;
+				}
+				int next = myParent[x];
+				myParent[x] = myParent[y];
+				x = next;
+			}
+			else {
+				if (y == myParent[y]) {
+					myParent[y] = myParent[x];
+					myComponents--;
+					return;
+				}
+				int next = myParent[y];
+				myParent[y] = myParent[x];
+				y = next;
+			}
+		}
+	}
+}
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+
+/**
+ * Streaming summary statistics of a sequence of values, updated in O(1) time
+ * and memory per value. Mean and variance use Welford's online algorithm, and
+ * two summaries of disjoint sequences can be merged (Chan et al.), so
+ * separate threads can each keep one and combine them at the end.
+ * Quantiles are approximated from a fixed histogram over [low, high].
+ * <p>
+ * See B. P. Welford, "Note on a method for calculating corrected sums of
+ * squares and products", Technometrics 4 (1962), and T. F. Chan, G. H. Golub
+ * and R. J. LeVeque, "Updating formulae and a pairwise algorithm for
+ * computing sample variances", 1979.
+ */
+
+public class RunningStats {
+	private long myCount;
+	private double myMean;
+	private double mySquares; // sum of squared differences from the mean
+	private double myMin;
+	private double myMax;
+
+	private double myLow;
+	private double myHigh;
+	private long[] myBins;
+
+	/**
+	 * Summary of values in [0, 1] with quantiles resolved to 1/4096
+	 */
+	public RunningStats() {
+		this(0, 1, 4096);
+	}
+
+	/**
+	 * Summary with quantiles resolved by a histogram of bins equal-width bins
+	 * over [low, high]; values outside the range are counted in the first or
+	 * last bin
+	 */
+	public RunningStats(double low, double high, int bins) {
+		if (!(low < high) || bins <= 0) throw new IllegalArgumentException();
+		myLow = low;
+		myHigh = high;
+		myBins = new long[bins];
+		clear();
+	}
+
+	// forget all values added so far
+	public void clear() {
+		myCount = 0;
+		myMean = 0;
+		mySquares = 0;
+		myMin = Double.POSITIVE_INFINITY;
+		myMax = Double.NEGATIVE_INFINITY;
+		Arrays.fill(myBins, 0);
+	}
+
+	// add value x to the summary
+	public void add(double x) {
+		myCount++;
+		double delta = x - myMean;
+		myMean += delta / myCount;
+		mySquares += delta * (x - myMean);
+		myMin = Math.min(myMin, x);
+		myMax = Math.max(myMax, x);
+		myBins[bin(x)]++;
+	}
+
+	/**
+	 * Add all values summarized by other, which must use the same histogram
+	 * range and bins
+	 */
+	public void merge(RunningStats other) {
+		if (other.myBins.length != myBins.length || other.myLow != myLow || other.myHigh != myHigh)
+			throw new IllegalArgumentException("histograms differ");
+		if (other.myCount == 0)
+			return;
+		if (myCount == 0) {
+			myCount = other.myCount;
+			myMean = other.myMean;
+			mySquares = other.mySquares;
+		}
+		else {
+			long count = myCount + other.myCount;
+			double delta = other.myMean - myMean;
+			myMean += delta * other.myCount / count;
+			mySquares += other.mySquares + delta * delta * ((double) myCount * other.myCount / count);
+			myCount = count;
+		}
+		myMin = Math.min(myMin, other.myMin);
+		myMax = Math.max(myMax, other.myMax);
+		for (int b = 0; b < myBins.length; b++)
+			myBins[b] += other.myBins[b];
+	}
+
+	// returns the number of values added
+	public long count() {
+		return myCount;
+	}
+
+	// returns the sample mean, or NaN if there are no values
+	public double mean() {
+		return myCount == 0 ? Double.NaN : myMean;
+	}
+
+	// returns the sample variance, or NaN if there are fewer than two values
+	public double variance() {
+		return myCount < 2 ? Double.NaN : mySquares / (myCount - 1);
+	}
+
+	// returns the sample standard deviation, or NaN if there are fewer than two values
+	public double stddev() {
+		return Math.sqrt(variance());
+	}
+
+	// returns the low endpoint of the 95% confidence interval for the mean
+	public double confidenceLow() {
+		return mean() - 1.96 * stddev() / Math.sqrt(myCount);
+	}
+
+	// returns the high endpoint of the 95% confidence interval for the mean
+	public double confidenceHigh() {
+		return mean() + 1.96 * stddev() / Math.sqrt(myCount);
+	}
+
+	// returns the smallest value added
+	public double min() {
+		return myMin;
+	}
+
+	// returns the largest value added
+	public double max() {
+		return myMax;
+	}
+
+	/**
+	 * Returns an approximation of the q-quantile (0 <= q <= 1), accurate to
+	 * within one histogram bin and clamped to [min(), max()]
+	 */
+	public double quantile(double q) {
+		if (q < 0 || q > 1) throw new IllegalArgumentException("q = " + q);
+		if (myCount == 0) return Double.NaN;
+
+		double rank = q * myCount;
+		long seen = 0;
+		int b = 0;
+		while (b < myBins.length - 1 && seen + myBins[b] < rank)
+			seen += myBins[b++];
+		// interpolate linearly within bin b
+		double width = (myHigh - myLow) / myBins.length;
+		double within = myBins[b] == 0 ? 0 : (rank - seen) / myBins[b];
+		double x = myLow + (b + within) * width;
+		return Math.max(myMin, Math.min(myMax, x));
+	}
+
+	// returns the histogram bin for x
+	private int bin(double x) {
+		int b = (int) ((x - myLow) / (myHigh - myLow) * myBins.length);
+		return Math.max(0, Math.min(myBins.length - 1, b));
+	}
+}
@@ -0,0 +1,27 @@
+import java.util.SplittableRandom;
+
+/**
+ * An <code>IRandom</code> backed by <code>java.util.SplittableRandom</code>
+ * (the SplitMix64 generator), whose split() is the library's.
+ */
+
+public class SplitMixRandom implements IRandom {
+	private SplittableRandom myRandom;
+
+	// a generator whose sequence is determined by seed
+	public SplitMixRandom(long seed) {
+		this(new SplittableRandom(seed));
+	}
+
+	private SplitMixRandom(SplittableRandom random) {
+		myRandom = random;
+	}
+
+	public long nextLong() {
+		return myRandom.nextLong();
+	}
+
+	public IRandom split() {
+		return new SplitMixRandom(myRandom.split());
+	}
+}
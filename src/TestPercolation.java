@@ -85,6 +85,763 @@ public class TestPercolation {
 		testPercolates(uf);
 	}
 
+	/**
+	 * This test checks if PercolationDFSFast's isFull method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testDFSFastIsFull() {
+		PercolationDFSFast dfs = new PercolationDFSFast(10);
+		for (int i = 0; i < 10; i++)
+			for (int j = 0; j < 10; j++) {
+				dfs.open(i, j);
+				assertTrue("This test checks if PercolationDFSFast's isFull method " + "works correctly", dfs.isFull(i, j));
+			}
+	}
+
+	/**
+	 * This test checks if PercolationDFSFast's percolates method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testDFSFastPercolates() {
+		testPercolates(new PercolationDFSFast(10));
+	}
+
+	/**
+	 * This test checks that PercolationDFSFast fills a site opened before it
+	 * was reachable once a later open connects it to the top
+	 */
+	@Test(timeout = 20000)
+	public void testDFSFastLateFill() {
+		PercolationDFSFast dfs = new PercolationDFSFast(10);
+		for (int i = 9; i >= 1; i--)
+			dfs.open(i, 3);
+		assertFalse("This test checks if PercolationDFSFast fills late", dfs.isFull(9, 3));
+		dfs.open(0, 3);
+		assertTrue("This test checks if PercolationDFSFast fills late", dfs.isFull(9, 3));
+		assertTrue("This test checks if PercolationDFSFast fills late", dfs.percolates());
+	}
+
+	/**
+	 * This test checks that PercolationDFSFast floods a cluster of millions of
+	 * cells at once without overflowing the stack
+	 */
+	@Test(timeout = 20000)
+	public void testDFSFastLargeFlood() {
+		int n = 2048;
+		PercolationDFSFast dfs = new PercolationDFSFast(n);
+		for (int i = 1; i < n; i++)
+			for (int j = 0; j < n; j++)
+				dfs.open(i, j);
+		assertFalse("This test checks if PercolationDFSFast floods large clusters", dfs.percolates());
+		dfs.open(0, 0);
+		assertTrue("This test checks if PercolationDFSFast floods large clusters", dfs.isFull(n - 1, n - 1));
+		assertTrue("This test checks if PercolationDFSFast floods large clusters", dfs.percolates());
+	}
+
+	/**
+	 * This test checks if PercolationScanline's isFull method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testScanlineIsFull() {
+		PercolationScanline scan = new PercolationScanline(10);
+		for (int i = 0; i < 10; i++)
+			for (int j = 0; j < 10; j++) {
+				scan.open(i, j);
+				assertTrue("This test checks if PercolationScanline's isFull method " + "works correctly", scan.isFull(i, j));
+			}
+	}
+
+	/**
+	 * This test checks if PercolationScanline's percolates method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testScanlinePercolates() {
+		testPercolates(new PercolationScanline(10));
+	}
+
+	/**
+	 * This test checks that PercolationScanline fills a long serpentine path
+	 * opened bottom-up without overflowing the stack
+	 */
+	@Test(timeout = 20000)
+	public void testScanlineSerpentine() {
+		int n = 1001;
+		PercolationScanline scan = new PercolationScanline(n);
+		for (int i = n - 1; i >= 1; i--) {
+			if (i % 2 == 0)
+				for (int j = 0; j < n; j++)
+					scan.open(i, j);
+			else
+				scan.open(i, (i / 2) % 2 == 0 ? n - 1 : 0);
+		}
+		assertFalse("This test checks if PercolationScanline fills a serpentine", scan.percolates());
+		scan.open(0, n - 1);
+		assertTrue("This test checks if PercolationScanline fills a serpentine", scan.percolates());
+		assertTrue("This test checks if PercolationScanline fills a serpentine", scan.isFull(n - 1, n / 2));
+	}
+
+	/**
+	 * This test checks that parallel PercolationStats gives the same results
+	 * for any number of threads
+	 */
+	@Test(timeout = 20000)
+	public void testParallelStatsReproducible() {
+		PercolationStats one = new PercolationStats(20, 40, 1);
+		PercolationStats many = new PercolationStats(20, 40, 4);
+		assertEquals("This test checks if parallel PercolationStats is reproducible", one.mean(), many.mean(), 0.0);
+		assertEquals("This test checks if parallel PercolationStats is reproducible", one.stddev(), many.stddev(), 0.0);
+	}
+
+	/**
+	 * This test checks that the NewmanZiff crossing probability runs from 0
+	 * to 1 and never decreases with p
+	 */
+	@Test(timeout = 20000)
+	public void testNewmanZiffCurve() {
+		NewmanZiff nz = new NewmanZiff(16, 20);
+		assertEquals("This test checks the NewmanZiff curve", 0.0, nz.crossingProbability(0.0), 0.0);
+		assertEquals("This test checks the NewmanZiff curve", 1.0, nz.crossingProbability(1.0), 0.0);
+		assertEquals("This test checks the NewmanZiff curve", 1.0, nz.percolationStrength(1.0), 1e-12);
+		double last = 0;
+		for (double p = 0; p <= 1; p += 0.05) {
+			double r = nz.crossingProbability(p);
+			assertTrue("This test checks the NewmanZiff curve", r >= last - 1e-12);
+			last = r;
+		}
+	}
+
+	/**
+	 * This test checks if PercolationUFCompact's isOpen method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testUFCompactIsOpen() {
+		PercolationUFCompact uf = new PercolationUFCompact(10);
+		for (int i = 1; i < 10; i++)
+			for (int j = 0; j < 10; j++) {
+				assertFalse("This test checks if PercolationUFCompact's isOpen method " + "works correctly", uf.isOpen(i, j));
+				uf.open(i, j);
+				assertTrue("This test checks if PercolationUFCompact's isOpen method " + "works correctly", uf.isOpen(i, j));
+			}
+	}
+
+	/**
+	 * This test checks if PercolationUFCompact's isFull method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testUFCompactIsFull() {
+		PercolationUFCompact uf = new PercolationUFCompact(10);
+		for (int i = 0; i < 10; i++)
+			for (int j = 0; j < 10; j++) {
+				uf.open(i, j);
+				assertTrue("This test checks if PercolationUFCompact's isFull method " + "works correctly", uf.isFull(i, j));
+			}
+	}
+
+	/**
+	 * This test checks if PercolationUFCompact's percolates method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testUFCompactPercolates() {
+		testPercolates(new PercolationUFCompact(10));
+	}
+
+	/**
+	 * This test checks if PercolationConcurrent's percolates method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testConcurrentPercolates() {
+		testPercolates(new PercolationConcurrent(10));
+	}
+
+	/**
+	 * This test checks that opening sites from many threads in
+	 * PercolationConcurrent gives the same fullness as PercolationUF
+	 */
+	@Test(timeout = 20000)
+	public void testConcurrentMatchesUF() {
+		int n = 60;
+		int[] sites = TrialDriver.shuffledSites(n, PercolationStats.trialRandom(7));
+		for (int count = n * n / 2; count <= n * n; count += n * n / 8) {
+			PercolationConcurrent conc = new PercolationConcurrent(n);
+			conc.openAll(sites, count, 4);
+			PercolationUF uf = new PercolationUF(n);
+			for (int k = 0; k < count; k++)
+				uf.open(sites[k] / n, sites[k] % n);
+			assertEquals("This test checks if PercolationConcurrent matches PercolationUF", count, conc.numberOfOpenSites());
+			assertEquals("This test checks if PercolationConcurrent matches PercolationUF", uf.percolates(), conc.percolates());
+			for (int i = 0; i < n; i++)
+				for (int j = 0; j < n; j++)
+					assertEquals("This test checks if PercolationConcurrent matches PercolationUF", uf.isFull(i, j), conc.isFull(i, j));
+		}
+	}
+
+	/**
+	 * This test checks if PercolationOffHeap's percolates method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testOffHeapPercolates() {
+		testPercolates(new PercolationOffHeap(10));
+	}
+
+	/**
+	 * This test checks if PercolationOffHeap's isFull method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testOffHeapIsFull() {
+		PercolationOffHeap perc = new PercolationOffHeap(10);
+		for (int i = 0; i < 10; i++)
+			for (int j = 0; j < 10; j++) {
+				perc.open(i, j);
+				assertTrue("This test checks if PercolationOffHeap's isFull method " + "works correctly", perc.isFull(i, j));
+			}
+	}
+
+	/**
+	 * This test checks that HoshenKopelman agrees with PercolationUF on
+	 * whether random fixed-p grids percolate
+	 */
+	@Test(timeout = 20000)
+	public void testHoshenKopelmanSpans() {
+		java.util.SplittableRandom random = new java.util.SplittableRandom(42);
+		for (int t = 0; t < 50; t++) {
+			int n = 1 + random.nextInt(30);
+			HoshenKopelman hk = new HoshenKopelman(n);
+			PercolationUF uf = new PercolationUF(n);
+			boolean[] row = new boolean[n];
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					row[j] = random.nextDouble() < 0.6;
+					if (row[j])
+						uf.open(i, j);
+				}
+				hk.addRow(row);
+			}
+			assertEquals("This test checks if HoshenKopelman's spans method works correctly", uf.percolates(), hk.spans());
+		}
+	}
+
+	/**
+	 * This test checks if PercolationStrips' percolates method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testStripsPercolates() {
+		testPercolates(new PercolationStrips(10, 3));
+	}
+
+	/**
+	 * This test checks that TrialDriver.openRandomUntilPercolates opens
+	 * distinct sites until the grid first percolates
+	 */
+	@Test(timeout = 20000)
+	public void testOpenRandomUntilPercolates() {
+		int n = 40;
+		double total = 0;
+		for (int t = 0; t < 20; t++) {
+			PercolationUFCompact perc = new PercolationUFCompact(n);
+			long opened = TrialDriver.openRandomUntilPercolates(perc, n, PercolationStats.trialRandom(t));
+			assertEquals("This test checks openRandomUntilPercolates", opened, perc.numberOfOpenSites());
+			assertTrue("This test checks openRandomUntilPercolates", perc.percolates());
+			total += (double) opened / (n * n);
+		}
+		assertEquals("This test checks openRandomUntilPercolates", 0.593, total / 20, 0.05);
+	}
+
+	/**
+	 * This test checks that PercolationStrips.percolationPoint finds the same
+	 * threshold as opening sites one at a time in PercolationUF
+	 */
+	@Test(timeout = 20000)
+	public void testStripsPercolationPoint() {
+		for (int t = 0; t < 10; t++) {
+			int n = 40;
+			int[] sites = TrialDriver.shuffledSites(n, PercolationStats.trialRandom(t));
+			int expected = TrialDriver.openUntilPercolates(new PercolationUF(n), n, sites);
+			for (int bands : new int[] { 1, 4, 7, n })
+				assertEquals("This test checks if PercolationStrips finds the threshold", expected,
+						PercolationStrips.percolationPoint(n, sites, bands));
+		}
+		// a grid that never percolates, and a single site
+		int[] firstRow = { 0, 1, 2, 3 };
+		assertEquals("This test checks if PercolationStrips finds the threshold", 4,
+				PercolationStrips.percolationPoint(4, firstRow, 2));
+		assertEquals("This test checks if PercolationStrips finds the threshold", 1,
+				PercolationStrips.percolationPoint(1, new int[] { 0 }, 1));
+	}
+
+	/**
+	 * This test checks that a checkpointed PercolationStats run resumed from
+	 * the middle of a trial gives the same results as a parallel run
+	 */
+	@Test(timeout = 20000)
+	public void testCheckpointResume() throws java.io.IOException {
+		java.nio.file.Path file = java.nio.file.Files.createTempFile("percolation", ".ckpt");
+		java.nio.file.Files.delete(file);
+		try {
+			try (PercolationCheckpoint partial = new PercolationCheckpoint(file, 20, 10, PercolationStats.RANDOM_SEED,
+					PercolationStats.generatorFingerprint())) {
+				int[] sites = TrialDriver.shuffledSites(20, PercolationStats.trialRandom(0));
+				partial.recordTrial((double) TrialDriver.openUntilPercolates(new PercolationUF(20), 20, sites) / 400);
+				partial.recordStep(57);
+			}
+
+			PercolationStats resumed = new PercolationStats(20, 10, file);
+			PercolationStats parallel = new PercolationStats(20, 10, 2);
+			assertEquals("This test checks if checkpointed runs resume correctly", parallel.mean(), resumed.mean(), 0.0);
+			assertEquals("This test checks if checkpointed runs resume correctly", parallel.stddev(), resumed.stddev(), 0.0);
+
+			// resuming with another generator must fail instead of mixing two sample streams
+			java.util.function.LongFunction<IRandom> generator = PercolationStats.ourGenerator;
+			PercolationStats.ourGenerator = Pcg32::new;
+			boolean rejected = false;
+			try {
+				new PercolationStats(20, 10, file);
+			}
+			catch (IllegalStateException e) {
+				rejected = true;
+			}
+			finally {
+				PercolationStats.ourGenerator = generator;
+			}
+			assertTrue("This test checks that checkpoints reject a different generator", rejected);
+
+			// a T whose fractions would not fit in one mapping is rejected before the file is touched
+			rejected = false;
+			try {
+				new PercolationCheckpoint(file, 20, Integer.MAX_VALUE / 4, PercolationStats.RANDOM_SEED, 0);
+			}
+			catch (IllegalArgumentException e) {
+				rejected = true;
+			}
+			assertTrue("This test checks that checkpoints reject too many trials", rejected);
+		}
+		finally {
+			java.nio.file.Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * This test checks that RunningStats agrees with the two-pass formulas
+	 * and that merging summaries matches adding every value to one
+	 */
+	@Test(timeout = 20000)
+	public void testRunningStats() {
+		java.util.SplittableRandom random = new java.util.SplittableRandom(3);
+		double[] values = new double[1000];
+		RunningStats all = new RunningStats();
+		RunningStats first = new RunningStats();
+		RunningStats second = new RunningStats();
+		double sum = 0;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = 0.5 + 0.1 * random.nextGaussian();
+			sum += values[i];
+			all.add(values[i]);
+			(i < 300 ? first : second).add(values[i]);
+		}
+		double mean = sum / values.length;
+		double squares = 0;
+		for (double v : values)
+			squares += (v - mean) * (v - mean);
+		first.merge(second);
+		assertEquals("This test checks RunningStats' mean", mean, all.mean(), 1e-12);
+		assertEquals("This test checks RunningStats' stddev", Math.sqrt(squares / (values.length - 1)), all.stddev(), 1e-12);
+		assertEquals("This test checks RunningStats' merge", all.mean(), first.mean(), 1e-12);
+		assertEquals("This test checks RunningStats' merge", all.stddev(), first.stddev(), 1e-12);
+		java.util.Arrays.sort(values);
+		assertEquals("This test checks RunningStats' quantile", values[500], all.quantile(0.5), 1e-3);
+		assertEquals("This test checks RunningStats' min", values[0], all.min(), 0.0);
+	}
+
+	/**
+	 * This test checks that an adaptive PercolationStats run stops at the
+	 * first trial count meeting its target, for any number of threads
+	 */
+	@Test(timeout = 20000)
+	public void testAdaptiveStats() {
+		PercolationStats one = PercolationStats.untilConfidence(20, 0.01, 0, 1);
+		PercolationStats many = PercolationStats.untilConfidence(20, 0.01, 0, 3);
+		assertTrue("This test checks if adaptive PercolationStats meets its target",
+				one.confidenceHigh() - one.mean() <= 0.01);
+		assertEquals("This test checks if adaptive PercolationStats is reproducible", one.trials(), many.trials());
+		assertEquals("This test checks if adaptive PercolationStats is reproducible", one.mean(), many.mean(), 0.0);
+	}
+
+	/**
+	 * This test checks that every engine's snapshot agrees with its isOpen
+	 * and isFull methods
+	 */
+	@Test(timeout = 20000)
+	public void testSnapshot() {
+		int n = 25;
+		IPercolate[] engines = { new PercolationDFS(n), new PercolationDFSFast(n), new PercolationScanline(n),
+				new PercolationUF(n), new PercolationUFCompact(n), new PercolationConcurrent(n),
+				new PercolationOffHeap(n), new PercolationStrips(n, 3), new PercolationUFFlags(n),
+				new PercolationBitset(n) };
+		int[] sites = TrialDriver.shuffledSites(n, PercolationStats.trialRandom(1));
+		for (IPercolate perc : engines) {
+			for (int k = 0; k < 2 * sites.length / 3; k++)
+				perc.open(sites[k] / n, sites[k] % n);
+			byte[] states = perc.snapshot();
+			for (int i = 0; i < n; i++)
+				for (int j = 0; j < n; j++) {
+					int expected = perc.isFull(i, j) ? IPercolate.FULL : perc.isOpen(i, j) ? IPercolate.OPEN : IPercolate.BLOCKED;
+					assertEquals("This test checks " + perc.getClass().getName() + "'s snapshot method", expected, states[i * n + j]);
+				}
+		}
+
+		// a snapshot of a union-find engine reads the trees without compressing them
+		PercolationUF uf = new PercolationUF(n);
+		PercolationUFFlags flags = new PercolationUFFlags(n);
+		for (int k = 0; k < 2 * sites.length / 3; k++) {
+			uf.open(sites[k] / n, sites[k] % n);
+			flags.open(sites[k] / n, sites[k] % n);
+		}
+		for (IUnionFind union : new IUnionFind[] { uf.myUnion, flags.myUnion }) {
+			int[] before = new int[n * n];
+			for (int x = 0; x < n * n; x++)
+				before[x] = union.depth(x);
+			uf.snapshot();
+			flags.snapshot();
+			for (int x = 0; x < n * n; x++)
+				assertEquals("This test checks that snapshot does not compress paths", before[x], union.depth(x));
+		}
+	}
+
+	/**
+	 * This test checks that the sites reported to an IPercolateListener
+	 * always match the engine's snapshot
+	 */
+	@Test(timeout = 20000)
+	public void testListener() {
+		int n = 20;
+		IPercolate[] engines = { new PercolationDFS(n), new PercolationDFSFast(n), new PercolationScanline(n),
+				new PercolationUF(n) };
+		int[] sites = TrialDriver.shuffledSites(n, PercolationStats.trialRandom(2));
+		assertFalse("This test checks supportsListener", new PercolationUFFlags(n).supportsListener());
+		for (IPercolate perc : engines) {
+			assertTrue("This test checks " + perc.getClass().getName() + "'s supportsListener", perc.supportsListener());
+			byte[] mirror = new byte[n * n];
+			int[] filled = new int[3]; // sites filled, cells reported by regions, percolation events
+			perc.setListener(new IPercolateListener() {
+				public void siteOpened(int i, int j) {
+					assertEquals("This test checks that sites are opened once", IPercolate.BLOCKED, mirror[i * n + j]);
+					mirror[i * n + j] = IPercolate.OPEN;
+				}
+
+				public void siteFilled(int i, int j) {
+					assertEquals("This test checks that open sites are filled once", IPercolate.OPEN, mirror[i * n + j]);
+					mirror[i * n + j] = IPercolate.FULL;
+					filled[0]++;
+				}
+
+				public void regionFilled(int i, int j, int cells) {
+					filled[1] += cells;
+					assertEquals("This test checks that regions count their sites", filled[0], filled[1]);
+				}
+
+				public void percolated() {
+					filled[2]++;
+				}
+			});
+			for (int site : sites) {
+				boolean before = perc.percolates();
+				perc.open(site / n, site % n);
+				assertArrayEquals("This test checks " + perc.getClass().getName() + "'s listener", perc.snapshot(), mirror);
+				assertEquals("This test checks that regions count their sites", filled[0], filled[1]);
+				assertEquals("This test checks " + perc.getClass().getName() + "'s percolated event",
+						perc.percolates() ? 1 : 0, filled[2]);
+				if (!before && perc.percolates())
+					assertEquals("This test checks the percolated event", 1, filled[2]);
+			}
+		}
+	}
+
+	/**
+	 * This test checks that InstrumentedUF counts operations and does not
+	 * change the results of PercolationUF
+	 */
+	@Test(timeout = 20000)
+	public void testInstrumentedUF() {
+		UnionFindCounters counters = new UnionFindCounters();
+		PercolationUF plain = new PercolationUF(10);
+		PercolationUF counted = new PercolationUF(10, new InstrumentedUF(new QuickUWPC(), counters));
+		testPercolates(counted);
+		testPercolates(plain);
+		assertEquals("This test checks InstrumentedUF's counts", plain.myUnion.components(), counted.myUnion.components());
+		assertEquals("This test checks InstrumentedUF's counts", 102 - counted.myUnion.components(), counters.links());
+		// the nine open rows and the one site below them form one cluster with the virtual top and bottom
+		assertEquals("This test checks InstrumentedUF's counts", counted.numberOfOpenSites() + 2, counters.maxRootSize());
+
+		// counting leaves every path exactly as the unwrapped structure leaves it
+		int n = 30;
+		int[] sites = TrialDriver.shuffledSites(n, PercolationStats.trialRandom(10));
+		IUnionFind[][] pairs = { { new QuickUWPC(), new QuickUWPC() }, { new QuickUnionRank(), new QuickUnionRank() },
+				{ new QuickUnionSplit(), new QuickUnionSplit() }, { new RemUnionFind(), new RemUnionFind() } };
+		for (IUnionFind[] uf : pairs) {
+			PercolationUF bare = new PercolationUF(n, uf[0]);
+			PercolationUF wrapped = new PercolationUF(n, new InstrumentedUF(uf[1], new UnionFindCounters()));
+			TrialDriver.openUntilPercolates(bare, n, sites);
+			TrialDriver.openUntilPercolates(wrapped, n, sites);
+			for (int x = 0; x < n * n + 2; x++)
+				assertEquals("This test checks that InstrumentedUF does not change " + uf[0].getClass().getName() + "'s paths",
+						bare.myUnion.depth(x), wrapped.myUnion.depth(x));
+		}
+		assertTrue("This test checks InstrumentedUF's counts", counters.unions() >= counters.links());
+		long paths = 0;
+		for (long count : counters.pathLengths())
+			paths += count;
+		assertEquals("This test checks InstrumentedUF's counts", 2 * (counters.unions() + counters.connectedQueries()) + counters.finds(), paths);
+	}
+
+	/**
+	 * This test checks that PercolationFrameWriter writes one raw RGB frame
+	 * every k opens plus the first and last, and that the last frame matches
+	 * the percolator
+	 */
+	@Test(timeout = 20000)
+	public void testFrameWriter() throws java.io.IOException {
+		int n = 10;
+		java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+		PercolationUF perc = new PercolationUF(n);
+		int opened;
+		try (PercolationFrameWriter writer = new PercolationFrameWriter(n, perc, 2, 7, out)) {
+			opened = writer.run(TrialDriver.shuffledSites(n, PercolationStats.trialRandom(0)));
+		}
+		int frameBytes = 3 * (2 * n) * (2 * n);
+		int frames = 2 + (opened - 1) / 7;
+		byte[] rgb = out.toByteArray();
+		assertEquals("This test checks PercolationFrameWriter's frame count", frames * frameBytes, rgb.length);
+		byte[] states = perc.snapshot();
+		for (int k = 0; k < n * n; k++) {
+			// top-left pixel of cell k in the last frame
+			int p = (frames - 1) * frameBytes + 3 * ((k / n) * 2 * (2 * n) + (k % n) * 2);
+			int expected = states[k] == IPercolate.FULL ? PercolationFrameWriter.FULL_RGB
+					: states[k] == IPercolate.OPEN ? PercolationFrameWriter.OPEN_RGB : PercolationFrameWriter.BLOCKED_RGB;
+			int actual = (rgb[p] & 0xFF) << 16 | (rgb[p + 1] & 0xFF) << 8 | (rgb[p + 2] & 0xFF);
+			assertEquals("This test checks PercolationFrameWriter's last frame", expected, actual);
+		}
+	}
+
+	/**
+	 * This test checks the IRandom generators against published reference
+	 * outputs and that bounded ints are in range and roughly uniform
+	 */
+	@Test(timeout = 20000)
+	public void testRandom() {
+		Xoshiro256StarStar xoshiro = new Xoshiro256StarStar(1, 2, 3, 4);
+		long[] xoshiroExpected = { 11520L, 0L, 1509978240L, 1215971899390074240L };
+		for (long expected : xoshiroExpected)
+			assertEquals("This test checks Xoshiro256StarStar's output", expected, xoshiro.nextLong());
+		Pcg32 pcg = new Pcg32(42, 54);
+		int[] pcgExpected = { 0xa15c02b7, 0x7b47f409, 0xba1d3330, 0x83d2f293, 0xbfa4784b, 0xcbed606e };
+		for (int expected : pcgExpected)
+			assertEquals("This test checks Pcg32's output", expected, pcg.nextInt());
+
+		IRandom[] generators = { new SplitMixRandom(5), new Xoshiro256StarStar(5), new Pcg32(5),
+				new Xoshiro256StarStar(5).split() };
+		for (IRandom random : generators) {
+			int[] counts = new int[10];
+			for (int k = 0; k < 100000; k++) {
+				int r = random.nextInt(10);
+				assertTrue("This test checks IRandom's bounded ints", r >= 0 && r < 10);
+				counts[r]++;
+			}
+			for (int count : counts)
+				assertTrue("This test checks IRandom's bounded ints", Math.abs(count - 10000) < 500);
+			int big = random.nextInt(Integer.MAX_VALUE);
+			assertTrue("This test checks IRandom's bounded ints", big >= 0);
+			double d = random.nextDouble();
+			assertTrue("This test checks IRandom's doubles", d >= 0 && d < 1);
+		}
+		assertEquals("This test checks that trial streams are reproducible", PercolationStats.trialRandom(3).nextLong(),
+				PercolationStats.trialRandom(3).nextLong());
+
+		// no trial's stream may be a shifted copy of another's
+		java.util.Set<Long> draws = new java.util.HashSet<>();
+		for (int trial = 0; trial < 200; trial++) {
+			IRandom random = PercolationStats.trialRandom(trial);
+			for (int k = 0; k < 400; k++)
+				assertTrue("This test checks that trial streams do not overlap", draws.add(random.nextLong()));
+		}
+	}
+
+	/**
+	 * This test checks if PercolationUFFlags' percolates method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testUFFlagsPercolates() {
+		testPercolates(new PercolationUFFlags(10));
+		testPercolates(new PercolationUFFlags(10, new CompactUF()));
+	}
+
+	/**
+	 * This test checks that PercolationUFFlags has no backwash: after the
+	 * system percolates, it agrees with PercolationDFSFast on every site
+	 */
+	@Test(timeout = 20000)
+	public void testUFFlagsNoBackwash() {
+		int n = 30;
+		IUnionFind[] structures = { new QuickUWPC(), new QuickFind(), new CompactUF(), new ConcurrentUF() };
+		for (IUnionFind uf : structures) {
+			PercolationUFFlags flags = new PercolationUFFlags(n, uf);
+			PercolationDFSFast dfs = new PercolationDFSFast(n);
+			int[] sites = TrialDriver.shuffledSites(n, PercolationStats.trialRandom(4));
+			for (int k = 0; k < 3 * sites.length / 4; k++) {
+				flags.open(sites[k] / n, sites[k] % n);
+				dfs.open(sites[k] / n, sites[k] % n);
+				assertEquals("This test checks PercolationUFFlags' percolates", dfs.percolates(), flags.percolates());
+			}
+			assertTrue("This test checks PercolationUFFlags' percolates", flags.percolates());
+			for (int i = 0; i < n; i++)
+				for (int j = 0; j < n; j++)
+					assertEquals("This test checks PercolationUFFlags for backwash", dfs.isFull(i, j), flags.isFull(i, j));
+		}
+	}
+
+	/**
+	 * This test checks PercolationClusters' incremental cluster statistics
+	 * against statistics recomputed from scratch after every few opens
+	 */
+	@Test(timeout = 20000)
+	public void testClusterStatistics() {
+		int n = 20;
+		PercolationClusters perc = new PercolationClusters(n);
+		int[] sites = TrialDriver.shuffledSites(n, PercolationStats.trialRandom(5));
+		for (int k = 0; k < sites.length; k++) {
+			perc.open(sites[k] / n, sites[k] % n);
+			if (k % 37 != 0)
+				continue;
+
+			// label the open sites with a fresh union-find and sum each cluster's coordinates
+			QuickUWPC uf = new QuickUWPC(n * n);
+			for (int i = 0; i < n; i++)
+				for (int j = 0; j < n; j++) {
+					if (!perc.isOpen(i, j)) continue;
+					if (i + 1 < n && perc.isOpen(i + 1, j)) uf.union(i * n + j, (i + 1) * n + j);
+					if (j + 1 < n && perc.isOpen(i, j + 1)) uf.union(i * n + j, i * n + j + 1);
+				}
+			long[] histogram = new long[n * n + 1];
+			double[] sx = new double[n * n], sy = new double[n * n], sq = new double[n * n];
+			int largest = 0;
+			long clusters = 0;
+			for (int index = 0; index < n * n; index++) {
+				if (!perc.isOpen(index / n, index % n)) continue;
+				int root = uf.find(index);
+				sx[root] += index % n;
+				sy[root] += index / n;
+				sq[root] += (index % n) * (index % n) + (index / n) * (index / n);
+				if (root == index) {
+					histogram[uf.size(index)]++;
+					clusters++;
+					largest = Math.max(largest, uf.size(index));
+				}
+			}
+			ClusterUnionFind stats = perc.clusters();
+			for (int size = 1; size <= n * n; size++)
+				assertEquals("This test checks ClusterUnionFind's histogram", histogram[size], stats.clusters(size));
+			assertEquals("This test checks ClusterUnionFind's cluster count", clusters, stats.clusters());
+			assertEquals("This test checks ClusterUnionFind's largest cluster", largest, stats.largestCluster());
+			assertEquals("This test checks ClusterUnionFind's mean size", (double) (k + 1) / clusters, stats.meanClusterSize(), 1e-9);
+			int probe = uf.find(sites[k]);
+			double s = uf.size(probe);
+			double rg = Math.sqrt(sq[probe] / s - (sx[probe] / s) * (sx[probe] / s) - (sy[probe] / s) * (sy[probe] / s));
+			assertEquals("This test checks ClusterUnionFind's radius of gyration", rg, stats.radiusOfGyration(sites[k]), 1e-6);
+		}
+	}
+
+	/**
+	 * This test checks that every IUnionFind implementation agrees with
+	 * QuickUWPC on random unions and that each one drives PercolationUF
+	 * correctly
+	 */
+	@Test(timeout = 20000)
+	public void testUnionFindFamily() {
+		int n = 500;
+		IUnionFind[] structures = { new QuickFind(), new QuickUnionRank(), new QuickUnionSplit(), new RemUnionFind(),
+				new CompactUF(), new ConcurrentUF() };
+		for (IUnionFind uf : structures) {
+			QuickUWPC reference = new QuickUWPC(n);
+			uf.initialize(n);
+			IRandom random = new SplitMixRandom(11);
+			for (int k = 0; k < 2 * n; k++) {
+				int p = random.nextInt(n), q = random.nextInt(n);
+				if (random.nextInt(3) == 0)
+					assertEquals("This test checks " + uf.getClass().getName() + "'s connected", reference.connected(p, q), uf.connected(p, q));
+				else {
+					reference.union(p, q);
+					uf.union(p, q);
+					assertEquals("This test checks " + uf.getClass().getName() + "'s components", reference.components(), uf.components());
+				}
+			}
+			for (int x = 0; x < n; x++)
+				assertTrue("This test checks " + uf.getClass().getName() + "'s find", uf.find(uf.find(x)) == uf.find(x));
+		}
+		testPercolates(new PercolationUF(10, new QuickUnionRank()));
+		testPercolates(new PercolationUF(10, new QuickUnionSplit()));
+		testPercolates(new PercolationUF(10, new RemUnionFind()));
+	}
+
+	/**
+	 * This test checks that a reset engine runs a second trial exactly like
+	 * a new one
+	 */
+	@Test(timeout = 20000)
+	public void testReset() {
+		int n = 20;
+		int[] first = TrialDriver.shuffledSites(n, PercolationStats.trialRandom(8));
+		int[] second = TrialDriver.shuffledSites(n, PercolationStats.trialRandom(9));
+		IPercolate[] engines = { new PercolationDFS(n), new PercolationDFSFast(n), new PercolationScanline(n),
+				new PercolationUF(n), new PercolationUF(n, new RemUnionFind()), new PercolationUFFlags(n),
+				new PercolationUFCompact(n), new PercolationConcurrent(n), new PercolationOffHeap(n),
+				new PercolationStrips(n, 3), new PercolationBitset(n), new PercolationClusters(n) };
+		for (IPercolate perc : engines) {
+			TrialDriver.openUntilPercolates(perc, n, first);
+			perc.reset();
+			assertEquals("This test checks " + perc.getClass().getName() + "'s reset", 0, perc.numberOfOpenSites());
+			assertFalse("This test checks " + perc.getClass().getName() + "'s reset", perc.percolates());
+			int opened = TrialDriver.openUntilPercolates(perc, n, second);
+			IPercolate fresh = new PercolationUF(n);
+			assertEquals("This test checks " + perc.getClass().getName() + "'s reset", TrialDriver.openUntilPercolates(fresh, n, second), opened);
+			assertEquals("This test checks " + perc.getClass().getName() + "'s reset", opened, perc.numberOfOpenSites());
+		}
+		PercolationClusters clusters = (PercolationClusters) engines[engines.length - 1];
+		PercolationClusters fresh = new PercolationClusters(n);
+		TrialDriver.openUntilPercolates(fresh, n, second);
+		assertEquals("This test checks PercolationClusters' reset", fresh.clusters().clusters(), clusters.clusters().clusters());
+		assertEquals("This test checks PercolationClusters' reset", fresh.clusters().largestCluster(), clusters.clusters().largestCluster());
+	}
+
+	/**
+	 * This test checks if PercolationBitset's percolates method works correctly
+	 */
+	@Test(timeout = 20000)
+	public void testBitsetPercolates() {
+		testPercolates(new PercolationBitset(10));
+	}
+
+	/**
+	 * This test checks that PercolationBitset agrees with PercolationDFSFast
+	 * on every site of random fixed-p grids, including widths that are not
+	 * a multiple of 64 and clusters that wind across word boundaries
+	 */
+	@Test(timeout = 20000)
+	public void testBitsetMatchesDFS() {
+		int[] sizes = { 1, 63, 64, 65, 130 };
+		for (int n : sizes)
+			for (int t = 0; t < 5; t++) {
+				PercolationBitset bits = PercolationBitset.sample(n, 0.55 + 0.02 * t, PercolationStats.trialRandom(t));
+				PercolationDFSFast dfs = new PercolationDFSFast(n);
+				for (int i = 0; i < n; i++)
+					for (int j = 0; j < n; j++)
+						if (bits.isOpen(i, j))
+							dfs.open(i, j);
+				assertEquals("This test checks PercolationBitset's open count", dfs.numberOfOpenSites(), bits.numberOfOpenSites());
+				assertEquals("This test checks PercolationBitset's percolates", dfs.percolates(), bits.percolates());
+				for (int i = 0; i < n; i++)
+					for (int j = 0; j < n; j++)
+						assertEquals("This test checks PercolationBitset's isFull", dfs.isFull(i, j), bits.isFull(i, j));
+			}
+	}
+
 	/**
 	 * Check if Exception is thrown unless (0 <= i < N) and (0 <= j < N)
 	 */
@@ -130,6 +887,14 @@ public class TestPercolation {
 	public void testBounds() {
 		testBounds(new PercolationDFS(10));
 		testBounds(new PercolationUF(10));
+		testBounds(new PercolationDFSFast(10));
+		testBounds(new PercolationScanline(10));
+		testBounds(new PercolationUFCompact(10));
+		testBounds(new PercolationConcurrent(10));
+		testBounds(new PercolationOffHeap(10));
+		testBounds(new PercolationStrips(10));
+		testBounds(new PercolationUFFlags(10));
+		testBounds(new PercolationBitset(10));
 	}
 
 }
\ No newline at end of file
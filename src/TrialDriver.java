@@ -0,0 +1,100 @@
+/**
+ * Drives a percolation trial by opening the sites of an N-by-N grid in a
+ * random order. The order is a Fisher-Yates shuffle of the row-major site
+ * indices, so every open hits a blocked site and no random draws are wasted
+ * on sites that are already open.
+ * <P>
+ * The shuffled order takes 4 bytes per site, as much again as a
+ * <code>PercolationUFCompact</code>. For grids where that does not fit,
+ * openRandomUntilPercolates() draws sites one at a time and skips those
+ * already open, which gives the same distribution of opening orders with
+ * no per-site storage outside the engine.
+ */
+
+public class TrialDriver {
+
+	/**
+	 * Returns the row-major indices 0 through n*n-1 of an n-by-n grid in
+	 * random order. Site index k is (row k / n, col k % n).
+	 * 
+	 * @param n
+	 *            size of the (square) grid
+	 * @param random
+	 *            source of randomness for the shuffle
+	 */
+	public static int[] shuffledSites(int n, IRandom random) {
+		int[] sites = new int[n * n];
+		shuffleSites(sites, random);
+		return sites;
+	}
+
+	/**
+	 * Fill sites with 0 through sites.length-1 in random order, reusing the
+	 * array. The order depends only on random, not on the previous contents.
+	 * 
+	 * @param sites
+	 *            array of n*n site indices to overwrite
+	 * @param random
+	 *            source of randomness for the shuffle
+	 */
+	public static void shuffleSites(int[] sites, IRandom random) {
+		for (int k = 0; k < sites.length; k++)
+			sites[k] = k;
+		for (int k = sites.length - 1; k > 0; k--) {
+			int r = random.nextInt(k + 1);
+			int tmp = sites[k];
+			sites[k] = sites[r];
+			sites[r] = tmp;
+		}
+	}
+
+	/**
+	 * Open sites of perc in the given order until it percolates, checking
+	 * percolates() once after each open.
+	 * 
+	 * @param perc
+	 *            simulated n-by-n system, initially all blocked
+	 * @param n
+	 *            size of the (square) grid
+	 * @param sites
+	 *            distinct row-major site indices in the order to open them
+	 * @return number of sites opened when the system first percolates, or
+	 *         sites.length if it never does
+	 */
+	public static int openUntilPercolates(IPercolate perc, int n, int[] sites) {
+		for (int k = 0; k < sites.length; k++) {
+			perc.open(sites[k] / n, sites[k] % n);
+			if (perc.percolates())
+				return k + 1;
+		}
+		return sites.length;
+	}
+
+	/**
+	 * Open uniformly random blocked sites of perc until it percolates,
+	 * drawing a row and a column for each try and redrawing when the site is
+	 * already open. Near the threshold about 0.6 of the sites are open, so
+	 * this takes under one extra draw per open on average.
+	 * 
+	 * @param perc
+	 *            simulated n-by-n system, initially all blocked
+	 * @param n
+	 *            size of the (square) grid
+	 * @param random
+	 *            source of the sites
+	 * @return number of sites opened when the system first percolates
+	 */
+	public static long openRandomUntilPercolates(IPercolate perc, int n, IRandom random) {
+		long opened = 0;
+		while (true) {
+			int row = random.nextInt(n);
+			int col = random.nextInt(n);
+			if (perc.isOpen(row, col))
+				continue;
+			perc.open(row, col);
+			opened++;
+			if (perc.percolates())
+				return opened;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Operation counts and tree-shape statistics gathered by one or more
+ * <code>InstrumentedUF</code> objects. All counters are
+ * <code>LongAdder</code>s, so many union-find structures on many threads can
+ * record into one set of counters without contending.
+ */
+
+public class UnionFindCounters {
+	// paths of this many links or more share the last histogram bucket
+	public static final int MAX_DEPTH = 64;
+
+	private final LongAdder myFinds = new LongAdder();
+	private final LongAdder myConnected = new LongAdder();
+	private final LongAdder myUnions = new LongAdder();
+	private final LongAdder myLinks = new LongAdder();
+	private final LongAdder myHops = new LongAdder();
+	private final LongAdder[] myDepths = new LongAdder[MAX_DEPTH];
+	private final LongAccumulator myMaxRootSize = new LongAccumulator(Math::max, 0);
+
+	public UnionFindCounters() {
+		for (int d = 0; d < MAX_DEPTH; d++)
+			myDepths[d] = new LongAdder();
+	}
+
+	void countFind() {
+		myFinds.increment();
+	}
+
+	void countConnected() {
+		myConnected.increment();
+	}
+
+	void countUnion() {
+		myUnions.increment();
+	}
+
+	void countLink(long rootSize) {
+		myLinks.increment();
+		myMaxRootSize.accumulate(rootSize);
+	}
+
+	// record a path of depth links walked by a find
+	void countPath(int depth) {
+		if (depth < 0)
+			return;
+		myHops.add(depth);
+		myDepths[Math.min(depth, MAX_DEPTH - 1)].increment();
+	}
+
+	// returns the number of calls to find
+	public long finds() {
+		return myFinds.sum();
+	}
+
+	// returns the number of calls to connected
+	public long connectedQueries() {
+		return myConnected.sum();
+	}
+
+	// returns the number of calls to union
+	public long unions() {
+		return myUnions.sum();
+	}
+
+	// returns the number of unions that merged two different components
+	public long links() {
+		return myLinks.sum();
+	}
+
+	// returns the total number of links walked from queried elements to their roots
+	public long hops() {
+		return myHops.sum();
+	}
+
+	/**
+	 * Returns how many queried elements were each number of links from their
+	 * root; element d counts paths of length d, and the last element counts
+	 * all paths of MAX_DEPTH - 1 links or more
+	 */
+	public long[] pathLengths() {
+		long[] histogram = new long[MAX_DEPTH];
+		for (int d = 0; d < MAX_DEPTH; d++)
+			histogram[d] = myDepths[d].sum();
+		return histogram;
+	}
+
+	// returns the size of the largest component created by a union
+	public long maxRootSize() {
+		return myMaxRootSize.get();
+	}
+
+	// returns a one-line summary of the counters
+	public String toString() {
+		long paths = 0;
+		int longest = 0;
+		long[] histogram = pathLengths();
+		for (int d = 0; d < MAX_DEPTH; d++) {
+			paths += histogram[d];
+			if (histogram[d] > 0)
+				longest = d;
+		}
+		return "finds: " + finds() + "  connected: " + connectedQueries() + "  unions: " + unions() + "  links: "
+				+ links() + "  mean path: " + (paths == 0 ? 0 : (double) hops() / paths) + "  longest path: "
+				+ longest + "  max root size: " + maxRootSize();
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * The xoshiro256** generator of Blackman and Vigna: 256 bits of state, a
+ * period of 2^256 - 1, and a handful of shifts, rotations and xors per
+ * number. split() hands over the current state and jumps this generator
+ * 2^128 numbers ahead, so split streams never overlap.
+ * <P>
+ * See D. Blackman and S. Vigna, "Scrambled Linear Pseudorandom Number
+ * Generators", ACM Transactions on Mathematical Software 47, 4 (2021).
+ */
+
+public class Xoshiro256StarStar implements IRandom {
+	private static final long[] JUMP = { 0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL,
+			0x39abdc4529b1661cL };
+
+	private long s0, s1, s2, s3;
+
+	// a generator whose state is filled from seed with SplitMix64
+	public Xoshiro256StarStar(long seed) {
+		s0 = IRandom.mix(seed += 0x9E3779B97F4A7C15L);
+		s1 = IRandom.mix(seed += 0x9E3779B97F4A7C15L);
+		s2 = IRandom.mix(seed += 0x9E3779B97F4A7C15L);
+		s3 = IRandom.mix(seed + 0x9E3779B97F4A7C15L);
+	}
+
+	// a generator with the given state, which must not be all zero
+	public Xoshiro256StarStar(long s0, long s1, long s2, long s3) {
+		if ((s0 | s1 | s2 | s3) == 0)
+			throw new IllegalArgumentException("state must not be all zero");
+		this.s0 = s0;
+		this.s1 = s1;
+		this.s2 = s2;
+		this.s3 = s3;
+	}
+
+	public long nextLong() {
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+
+	public IRandom split() {
+		IRandom copy = new Xoshiro256StarStar(s0, s1, s2, s3);
+		jump();
+		return copy;
+	}
+
+	// advance this generator by 2^128 numbers
+	private void jump() {
+		long j0 = 0, j1 = 0, j2 = 0, j3 = 0;
+		for (long word : JUMP)
+			for (int b = 0; b < 64; b++) {
+				if ((word & (1L << b)) != 0) {
+					j0 ^= s0;
+					j1 ^= s1;
+					j2 ^= s2;
+					j3 ^= s3;
+				}
+				nextLong();
+			}
+		s0 = j0;
+		s1 = j1;
+		s2 = j2;
+		s3 = j3;
+	}
+}